@@ -0,0 +1,3 @@
+#!/bin/sh
+# perfasm needs the perf tool and the hsdis disassembler library in the JRE
+java -Xmx1g -jar ./build/distributions/util.concurrent-0.3-B-shadow.jar ".*HotPathBenchmark.*" -wi 5 -i 10 -f 1 -prof perfasm
@@ -0,0 +1,3 @@
+#!/bin/sh
+java -agentlib:jdwp=transport=dt_socket,server=y,suspend=n,address=5005 -ea -Xmx1g -jar ./build/distributions/util.concurrent-0.3-B-shadow.jar ".*_(SPSC|CAQ_SingleSender)_Benchmark1.*" -wi 5 -i 10 -f 0 -p readers=1
+
@@ -0,0 +1,3 @@
+#!/bin/sh
+java -Xmx1g -cp ./build/distributions/util.concurrent-0.3-B-shadow.jar buls.util.concurrent.benchmark.SharedQueueHarness shared 10000000
+java -Xmx1g -cp ./build/distributions/util.concurrent-0.3-B-shadow.jar buls.util.concurrent.benchmark.SharedQueueHarness socket 10000000
@@ -62,6 +62,14 @@ public abstract class AbstractArrayQueue<E> extends AbstractQueue<E> {
         return elements.length;
     }
 
+    /**
+     * the exception is built out of the offer's body, it keeps the hot path small enough for inlining
+     */
+    @NotNull
+    protected static IllegalArgumentException nullElement() {
+        return new IllegalArgumentException("element cannot be null");
+    }
+
     @Nullable
     @SuppressWarnings("unchecked")
     protected E _get(int index) {
@@ -78,10 +86,4 @@ public abstract class AbstractArrayQueue<E> extends AbstractQueue<E> {
         _insert(null, index);
         return e;
     }
-
-    @NotNull
-    @Override
-    public E peek() {
-        throw new UnsupportedOperationException();
-    }
 }
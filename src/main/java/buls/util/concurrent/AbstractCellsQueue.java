@@ -0,0 +1,231 @@
+package buls.util.concurrent;
+
+/**
+ * The cells protocols of the queues with never reset counters, subclasses keep the counters,
+ * the levels and the values.
+ * <p/>
+ * A cell's level is -round while the cell waits for a value of the round and round + 1 while it keeps the value,
+ * like in {@link ConcurrentArrayQueue}. A value is published by the level change. There are two ways to take a cell:
+ * <ul>
+ * <li>{@link #lockTail(long)} and {@link #lockHead(long)} lock the cell by a CAS on its level and move the counter
+ * after that, like {@link ConcurrentArrayQueue} does. A thread never holds a counter position while it waits for
+ * the cell, other producers go to the next cell when the cell is locked by a producer, other consumers go
+ * to the next cell when the cell is locked by a consumer;</li>
+ * <li>{@link #claimTail(long)} and {@link #claimHead(long)} claim a position by a CAS on the counter and wait for
+ * the cell's level after that. It is a blocking protocol: a producer waiting for a slow consumer of
+ * the previous round holds its position and the consumers of the position wait for it. A producer which
+ * failed to set the value aborts the position, a consumer skips an aborted position. The protocol is kept
+ * for the off-heap queues, there a cell must belong to one claimed counter before the cell's record is accessed.</li>
+ * </ul>
+ * Both ways release the cell by {@link #releaseTail(long)} and {@link #releaseHead(long)}, a queue uses only one way.
+ *
+ * @author Bulgakov Alex
+ */
+public abstract class AbstractCellsQueue {
+
+    private final int capacity;
+
+    protected AbstractCellsQueue(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity " + capacity);
+        this.capacity = capacity;
+    }
+
+    /**
+     * the level of a cell locked by a producer
+     */
+    protected static final long PUTTING = Long.MAX_VALUE;
+    /**
+     * the level of a cell locked by a consumer
+     */
+    protected static final long POOLING = Long.MIN_VALUE;
+
+    /**
+     * @return the level of an aborted cell in the round, it differs from the free, the filled and the locked levels
+     */
+    protected static long aborted(long level) {
+        return Long.MAX_VALUE / 2 + level;
+    }
+
+    public final int capacity() {
+        return capacity;
+    }
+
+    protected abstract long getTail();
+
+    protected abstract long getHead();
+
+    protected abstract boolean casTail(long expect, long update);
+
+    protected abstract boolean casHead(long expect, long update);
+
+    /**
+     * @return level of the counter's cell
+     */
+    protected abstract long getLevel(long counter);
+
+    protected abstract void setLevel(long counter, long level);
+
+    protected abstract boolean casLevel(long counter, long expect, long update);
+
+    /**
+     * @return the locked tail counter, -1 if the queue is full
+     */
+    protected final long lockTail() {
+        return lockTail(Long.MAX_VALUE);
+    }
+
+    /**
+     * locks the free cell by its level, then moves the tail counter past the cell
+     *
+     * @param limit the counter which cannot be locked
+     * @return the locked tail counter, -1 if the queue is full or all counters below the limit are locked
+     */
+    protected final long lockTail(long limit) {
+        final int capacity = this.capacity;
+        long tail = getTail();
+        while (true) {
+            if (tail >= limit || tail - getHead() >= capacity) return -1;
+            final long level = computeLevel(tail);
+            if (casLevel(tail, -level, PUTTING)) {
+                moveTail(tail + 1);
+                return tail;
+            }
+            final long cell = getLevel(tail);
+            if (cell == PUTTING) {
+                //another producer sets the cell, go to the next one
+                tail++;
+            } else if (cell == POOLING) {
+                //a consumer of the previous round retrieves the cell's value
+                Thread.yield();
+            } else if (cell != -level) {
+                //the cell is filled, the tail is stale
+                tail = getTail();
+            }
+        }
+    }
+
+    /**
+     * @return the locked head counter, -1 if the queue is empty
+     */
+    protected final long lockHead() {
+        return lockHead(Long.MAX_VALUE);
+    }
+
+    /**
+     * locks the filled cell by its level, then moves the head counter past the cell
+     *
+     * @param limit the counter which cannot be locked
+     * @return the locked head counter, -1 if the queue is empty or all counters below the limit are locked
+     */
+    protected final long lockHead(long limit) {
+        long head = getHead();
+        while (true) {
+            if (head >= limit || head >= getTail()) return -1;
+            final long level = computeLevel(head);
+            if (casLevel(head, level + 1, POOLING)) {
+                moveHead(head + 1);
+                return head;
+            }
+            final long cell = getLevel(head);
+            if (cell == POOLING) {
+                //another consumer retrieves the cell, go to the next one
+                head++;
+            } else if (cell == PUTTING) {
+                //the producer sets the cell's value
+                Thread.yield();
+            } else if (cell != level + 1) {
+                //the cell is retrieved, the head is stale
+                head = getHead();
+            }
+        }
+    }
+
+    private void moveTail(long update) {
+        long tail;
+        while ((tail = getTail()) < update && !casTail(tail, update)) ;
+    }
+
+    private void moveHead(long update) {
+        long head;
+        while ((head = getHead()) < update && !casHead(head, update)) ;
+    }
+
+    /**
+     * @return the claimed tail counter, -1 if the queue is full
+     */
+    protected long claimTail() {
+        return claimTail(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param limit the counter which cannot be claimed
+     * @return the claimed tail counter, -1 if the queue is full or all counters below the limit are claimed
+     */
+    protected final long claimTail(long limit) {
+        final int capacity = this.capacity;
+        while (true) {
+            final long tail = getTail();
+            if (tail >= limit || tail - getHead() >= capacity) return -1;
+            if (casTail(tail, tail + 1)) {
+                //a consumer of the previous round can still be retrieving the cell's value
+                final long level = -computeLevel(tail);
+                while (getLevel(tail) != level) Thread.yield();
+                return tail;
+            }
+        }
+    }
+
+    /**
+     * publishes the value set to the claimed cell
+     */
+    protected void releaseTail(long tail) {
+        setLevel(tail, computeLevel(tail) + 1);
+    }
+
+    /**
+     * marks the claimed cell as aborted, its value is not set and consumers skip it
+     */
+    protected void abortTail(long tail) {
+        setLevel(tail, aborted(computeLevel(tail)));
+    }
+
+    /**
+     * @return the claimed head counter, -1 if the queue is empty
+     */
+    protected long claimHead() {
+        return claimHead(Long.MAX_VALUE);
+    }
+
+    /**
+     * @param limit the counter which cannot be claimed
+     * @return the claimed head counter, -1 if the queue is empty or all counters below the limit are claimed
+     */
+    protected final long claimHead(long limit) {
+        while (true) {
+            final long head = getHead();
+            if (head >= limit || head >= getTail()) return -1;
+
+            final long level = computeLevel(head);
+            final long cell = getLevel(head);
+            if (cell == level + 1) {
+                if (casHead(head, head + 1)) return head;
+            } else if (cell == aborted(level)) {
+                if (casHead(head, head + 1)) releaseHead(head);
+            } else {
+                //the position is claimed by a producer, the value is being set
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * frees the cell for a producer of the next round
+     */
+    protected void releaseHead(long head) {
+        setLevel(head, -(computeLevel(head) + 1));
+    }
+
+    protected final long computeLevel(long counter) {
+        return counter / capacity;
+    }
+}
@@ -3,7 +3,8 @@ package buls.util.concurrent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Created by Alex on 25.06.2014.
@@ -18,16 +19,56 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
 
     static final int MAX_VALUE = Integer.MAX_VALUE;
 
-    protected final AtomicLong tailSequence = new AtomicLong();
-    protected final AtomicLong headSequence = new AtomicLong();
+    /**
+     * how old the value of {@link #approximateSize()} can be
+     */
+    public static final long DEFAULT_SIZE_STALENESS_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    /**
+     * the counters are padded, producers and consumers do not invalidate each other's cache lines
+     * and the final fields of this queue
+     */
+    protected final PaddedSequence tailSequence = new PaddedSequence();
+    protected final PaddedSequence headSequence = new PaddedSequence();
+
+    /**
+     * the last approximate size with the time it was computed at, is written by monitoring threads only.
+     * The pair is published by a single reference, a reader never sees a new time with an old size
+     */
+    private final AtomicReference<SizeSnapshot> sizeSnapshot = new AtomicReference<>();
     private final int MAX_SEQUENCE_VALUE;
 
     protected final boolean checkInterruption;
 
+    /**
+     * waiting after the failed attempts of {@link #setElement(Object, long, long)} and {@link #getElement(long, long)}
+     */
+    @NotNull
+    protected final BackoffStrategy backoff;
+
     protected AbstractHeadTailArrayQueue(int capacity, boolean checkInterruption) {
+        this(capacity, checkInterruption, BackoffStrategies.NONE);
+    }
+
+    protected AbstractHeadTailArrayQueue(int capacity, boolean checkInterruption, @NotNull BackoffStrategy backoff) {
+        this(capacity, checkInterruption, capacity == 0 ? 0 : (MAX_VALUE - (MAX_VALUE % capacity)) - 1, backoff);
+    }
+
+    protected AbstractHeadTailArrayQueue(int capacity, boolean checkInterruption, int maxSequenceValue) {
+        this(capacity, checkInterruption, maxSequenceValue, BackoffStrategies.NONE);
+    }
+
+    /**
+     * @param maxSequenceValue last value of the head and the tail counters before reset to 0,
+     *                         the value + 1 must be divisible by the capacity
+     */
+    protected AbstractHeadTailArrayQueue(int capacity, boolean checkInterruption, int maxSequenceValue,
+                                         @NotNull BackoffStrategy backoff) {
         super(capacity);
-        MAX_SEQUENCE_VALUE = capacity == 0 ? 0 : (MAX_VALUE - (MAX_VALUE % capacity)) - 1;
+        assert capacity == 0 || (maxSequenceValue + 1L) % capacity == 0 : capacity + " " + maxSequenceValue;
+        MAX_SEQUENCE_VALUE = maxSequenceValue;
         this.checkInterruption = checkInterruption;
+        this.backoff = backoff;
     }
 
     @NotNull
@@ -42,11 +83,12 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
                 + "\n" + super.toString();
     }
 
+    /**
+     * the wrapped tail is compensated without a jump, the JIT compiles it to a conditional move
+     */
     protected final int delta(final long head, final long tail) {
-        final long delta;
-        if (tail >= head) delta = tail - head;
-        else delta = tail + max_sequence_value() - head + 1;
-        return (int) delta;
+        final long delta = tail - head;
+        return (int) (delta >= 0 ? delta : delta + max_sequence_value() + 1);
     }
 
     protected final long getTail() {
@@ -68,19 +110,28 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
         long insertingTail = tail;
         final int capacity = capacity();
 
+        int fails = 0;
         while (isNotInterrupted()) {
             final int res = set(e, tail, insertingTail, head);
             if (res == SUCCESS) {
                 successSet();
+                backoff.completed(fails);
                 return true;
             } else {
                 failSet();
+                ++fails;
                 insertingTail = computeTail(insertingTail, res);
 
                 boolean overflow = checkTail(insertingTail, capacity);
-                if (overflow) return false;
+                if (overflow) break;
+                if (exchangeSet(e)) {
+                    backoff.completed(fails);
+                    return true;
+                }
+                backoff.backoff(fails);
             }
         }
+        backoff.completed(fails);
         return false;
     }
 
@@ -103,19 +154,47 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
     @Nullable
     protected E getElement(final long head, final long tail) {
         long readingHead = head;
+        int fails = 0;
         while (isNotInterrupted()) {
             E e;
             if ((e = get(head, readingHead)) != null) {
                 successGet();
+                backoff.completed(fails);
                 return e;
             } else {
                 failGet();
+                ++fails;
+                if ((e = exchangeGet()) != null) {
+                    backoff.completed(fails);
+                    return e;
+                }
 
                 readingHead = computeNextHead(readingHead);
                 long t = getTail();
-                if (checkHead(readingHead, t)) return null;
+                if (checkHead(readingHead, t)) break;
+                backoff.backoff(fails);
             }
         }
+        backoff.completed(fails);
+        return null;
+    }
+
+    /**
+     * is called after a failed attempt to set the element, before the backoff
+     *
+     * @return true if the element has been handed over to a consumer without the cells
+     */
+    protected boolean exchangeSet(@NotNull E e) {
+        return false;
+    }
+
+    /**
+     * is called after a failed attempt to get an element, before the backoff
+     *
+     * @return an element handed over by a producer without the cells or null
+     */
+    @Nullable
+    protected E exchangeGet() {
         return null;
     }
 
@@ -123,44 +202,83 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
         return MAX_SEQUENCE_VALUE;
     }
 
+    /**
+     * the head is read between two equal reads of the tail, so the pair existed at the moment of the head read
+     *
+     * @return exact amount of claimed cells which are not retrieved yet
+     */
     @Override
     public final int size() {
         long tail = getTail();
-        long head = getHead();
-        return delta(head, tail);
+        while (true) {
+            final long head = getHead();
+            final long validation = getTail();
+            if (validation == tail) return delta(head, tail);
+            tail = validation;
+        }
     }
 
-    protected final int computeIndex(long counter) {
+    /**
+     * the head never passes the tail, so the head read before the tail gives a pair which existed in between
+     */
+    @Override
+    public final boolean isEmpty() {
+        final long head = getHead();
+        return head == getTail();
+    }
+
+    /**
+     * @see #approximateSize(long)
+     */
+    public final int approximateSize() {
+        return approximateSize(DEFAULT_SIZE_STALENESS_NANOS);
+    }
+
+    /**
+     * reads the counters at most once per the staleness, without ordering and validation,
+     * other calls return the cached value, so frequent monitoring does not touch the counters lines
+     *
+     * @param maxStalenessNanos how old the returned value can be, 0 means the counters are read
+     * @return amount of elements between 0 and the capacity
+     */
+    public final int approximateSize(long maxStalenessNanos) {
+        final long now = System.nanoTime();
+        final SizeSnapshot snapshot = sizeSnapshot.get();
+        if (snapshot != null && now - snapshot.time < maxStalenessNanos) return snapshot.size;
+
+        //the tail read after the head is not behind it
+        final long head = headSequence.getOpaque();
+        final long tail = tailSequence.getOpaque();
+        final int size = Math.max(0, Math.min(delta(head, tail), capacity()));
+        sizeSnapshot.lazySet(new SizeSnapshot(size, now));
+        return size;
+    }
+
+    protected int computeIndex(long counter) {
         return (int) (counter % capacity());
     }
 
+    /**
+     * a queue of 0 capacity is always full, so it needs no own check
+     */
     @Override
     public boolean offer(@Nullable E e) {
-        if (e == null) throw new IllegalArgumentException("element cannot be null");
-
-        final int capacity = capacity();
-        if (capacity == 0) return false;
+        if (e == null) throw nullElement();
 
         final long tail = getTail();
         final long head = getHead();
-        final long size = delta(head, tail);
-
-        return (size < capacity) && setElement(e, tail, head);
+        return delta(head, tail) < capacity() && setElement(e, tail, head);
     }
 
+    /**
+     * a queue of 0 capacity is always empty, so it needs no own check
+     */
     @Nullable
     @Override
     public E poll() {
-        final int capacity = capacity();
-
-        if (capacity == 0) return null;
-
         final long tail = getTail();
         final long head = getHead();
-        int size = delta(head, tail);
-
-        boolean notEmpty = size > 0;
-        return notEmpty ? getElement(head, tail) : null;
+        return tail != head ? getElement(head, tail) : null;
     }
 
     protected boolean incrementHead(long oldHead, long nextHead) {
@@ -178,7 +296,7 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
      * @param sequence
      * @return
      */
-    private boolean incrementSequence(final long oldVal, final long insertedVal, final @NotNull AtomicLong sequence) {
+    private boolean incrementSequence(final long oldVal, final long insertedVal, final @NotNull PaddedSequence sequence) {
         assert insertedVal >= 0;
         assert insertedVal <= max_sequence_value();
 
@@ -216,7 +334,7 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
         return (counter == max_sequence_value()) ? 0 : counter + 1;
     }
 
-    private boolean cas(@NotNull AtomicLong counter, long expected, long update) {
+    private boolean cas(@NotNull PaddedSequence counter, long expected, long update) {
         return counter.compareAndSet(expected, update);
     }
 
@@ -281,7 +399,17 @@ public abstract class AbstractHeadTailArrayQueue<E> extends AbstractArrayQueue<E
      * @param counter
      * @return
      */
-    protected final long computeLevel(long counter) {
+    protected long computeLevel(long counter) {
         return counter / capacity();
     }
+
+    private static final class SizeSnapshot {
+        final int size;
+        final long time;
+
+        SizeSnapshot(int size, long time) {
+            this.size = size;
+            this.time = time;
+        }
+    }
 }
@@ -0,0 +1,391 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * The cells protocol of {@link ConcurrentArrayQueue} independent of the levels storage.
+ * <p/>
+ * A cell's level is negative (or 0) when the cell waits for an element of the tail counter's round,
+ * positive when the cell contains an element for the head counter's round,
+ * {@link #PUTTING} or {@link #POOLING} when the cell is locked by a producer or a consumer.
+ *
+ * @author Bulgakov Alex
+ */
+public abstract class AbstractLevelArrayQueue<E> extends AbstractHeadTailArrayQueue<E> {
+
+    protected static final long PUTTING = Long.MAX_VALUE;
+    protected static final long POOLING = Long.MIN_VALUE;
+
+    protected AbstractLevelArrayQueue(int capacity, boolean checkInterruption) {
+        super(capacity, checkInterruption);
+    }
+
+    protected AbstractLevelArrayQueue(int capacity, boolean checkInterruption, int maxSequenceValue) {
+        super(capacity, checkInterruption, maxSequenceValue);
+    }
+
+    protected AbstractLevelArrayQueue(int capacity, boolean checkInterruption, @NotNull BackoffStrategy backoff) {
+        super(capacity, checkInterruption, backoff);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return super.toString() + "\n" + _levelsString();
+    }
+
+    @NotNull
+    protected String _levelsString() {
+        int iMax = capacity() - 1;
+        if (iMax == -1) return "[]";
+
+        StringBuilder b = new StringBuilder();
+        b.append('[');
+        for (int i = 0; ; i++) {
+            b.append(_level(i));
+            if (i == iMax) return b.append(']').toString();
+            b.append(',').append(' ');
+        }
+    }
+
+    /**
+     * @return level of the cell
+     */
+    protected abstract long _level(int index);
+
+    protected abstract boolean _levelCas(int index, long expect, long update);
+
+    /**
+     * sets level of the cell without any check, is used for tests and initialization
+     */
+    protected abstract void _setLevel(int index, long level);
+
+    /**
+     * moves the cell out of {@link #PUTTING} or {@link #POOLING} state, only the locking thread can do it.
+     * The element's store or load before the call must not be reordered after the new level.
+     */
+    protected void _releaseLevel(int index, long lockLevel, long level) {
+        _levelCas(index, lockLevel, level);
+    }
+
+    /**
+     * reads the head element without retrieving it, no cell is locked
+     *
+     * @return the head element, null if the queue is empty
+     */
+    @Nullable
+    @Override
+    public E peek() {
+        while (isNotInterrupted()) {
+            final long head = getHead();
+            if (head == getTail()) return null;
+
+            final E e = _peek(head);
+            if (e != null) return e;
+            //the head cell is being put or pooled
+            if (head == getHead()) Thread.yield();
+        }
+        return null;
+    }
+
+    /**
+     * the element is read between two reads of the cell's level, so it is not returned
+     * if a consumer has pooled the cell meanwhile
+     *
+     * @return element of the counter's round, null if the cell is locked or belongs to another round
+     */
+    @Nullable
+    private E _peek(long counter) {
+        final int index = computeIndex(counter);
+        final long level = beforeGetLevel(counter);
+        if (_level(index) != level) return null;
+        final E e = _get(index);
+        //keeps the element read from moving after the level re-read, as StampedLock.validate does
+        VarHandle.acquireFence();
+        return _level(index) == level ? e : null;
+    }
+
+    /**
+     * @return weakly consistent iterator over the elements between the head and the tail at the moment of the call,
+     * it skips cells being put or pooled, never locks cells and does not support removal
+     */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new WeakIterator();
+    }
+
+    /**
+     * inserts elements of the range to the queue's end. Cells are locked one after another from the tail,
+     * the tail counter is incremented once for all locked cells
+     *
+     * @param batch elements, cannot contain null
+     * @param from  first element index, inclusive
+     * @param to    last element index, exclusive
+     * @return amount of inserted elements, they are the range's beginning
+     */
+    public int offerBatch(@NotNull E[] batch, int from, int to) {
+        if (from < 0 || to > batch.length || from > to) {
+            throw new IndexOutOfBoundsException("from " + from + ", to " + to + ", length " + batch.length);
+        }
+        for (int i = from; i < to; i++) {
+            if (batch[i] == null) throw new IllegalArgumentException("element cannot be null, index " + i);
+        }
+
+        final long tail = getTail();
+        final long head = getHead();
+        final int amount = Math.min(to - from, capacity() - delta(head, tail));
+        if (amount <= 0) return 0;
+
+        int locked = 0;
+        long insertingTail = tail;
+        long lastTail = tail;
+        while (locked < amount) {
+            final int index = computeIndex(insertingTail);
+            if (!lockPutting(index, getLevelBeforeSet(insertingTail))) break;
+            _insert(batch[from + locked], index);
+            ++locked;
+            lastTail = insertingTail;
+            insertingTail = _increment(insertingTail);
+        }
+
+        //the tail is taken by another producer, go the usual way
+        if (locked == 0) return setElement(batch[from], tail, head) ? 1 : 0;
+
+        long currentTail = tail;
+        try {
+            incrementTail(tail, lastTail);
+        } finally {
+            for (int i = 0; i < locked; i++) {
+                releasePutting(currentTail, computeIndex(currentTail));
+                currentTail = _increment(currentTail);
+            }
+        }
+        successSet();
+        return locked;
+    }
+
+    /**
+     * @see #offerBatch(Object[], int, int)
+     */
+    @SuppressWarnings("unchecked")
+    public int offerBatch(@NotNull Collection<? extends E> batch) {
+        final E[] elements = (E[]) batch.toArray();
+        return offerBatch(elements, 0, elements.length);
+    }
+
+    /**
+     * retrieves elements from the queue's head. Cells are locked one after another from the head,
+     * the head counter is incremented once for all locked cells.
+     * <p/>
+     * If the consumer throws an exception, the delivery stops and the exception is rethrown after all locked cells
+     * are released. The elements of the rest of the locked cells are lost, up to maxElements - 1 elements:
+     * the head has been moved past all locked cells before the delivery and other consumers can already
+     * retrieve the next cells, so the elements cannot be returned to their positions. Pass a consumer which
+     * does not throw, or maxElements of 1, if no element may be lost.
+     *
+     * @return amount of retrieved elements
+     */
+    public int drain(@NotNull Consumer<? super E> consumer, int maxElements) {
+        final long head = getHead();
+        final long tail = getTail();
+        final int amount = Math.min(delta(head, tail), maxElements);
+        if (amount <= 0) return 0;
+
+        int locked = 0;
+        long readingHead = head;
+        long lastHead = head;
+        while (locked < amount) {
+            final int index = computeIndex(readingHead);
+            if (!lockPooling(index, beforeGetLevel(readingHead))) break;
+            ++locked;
+            lastHead = readingHead;
+            readingHead = _increment(readingHead);
+        }
+
+        if (locked == 0) {
+            //the head is taken by another consumer, go the usual way
+            final E e = getElement(head, tail);
+            if (e == null) return 0;
+            consumer.accept(e);
+            return 1;
+        }
+
+        incrementHead(head, lastHead);
+        successGet();
+
+        long currentHead = head;
+        RuntimeException error = null;
+        for (int i = 0; i < locked; i++) {
+            final int index = computeIndex(currentHead);
+            final E e = _retrieve(index);
+            assert e != null;
+            releasePooling(currentHead, index);
+            currentHead = _increment(currentHead);
+            if (error == null) try {
+                consumer.accept(e);
+            } catch (RuntimeException ex) {
+                error = ex;
+            }
+        }
+        if (error != null) throw error;
+        return locked;
+    }
+
+    /**
+     * @return SUCCESS, INTERRUPTED or result from onPuttingFail
+     */
+    @Override
+    protected final int set(final E e, final long oldTail, final long insertingTail, long head) {
+        int fails = 0;
+        while (isNotInterrupted()) {
+            final int index = computeIndex(insertingTail);
+            final long level = getLevelBeforeSet(insertingTail);
+            if (lockPutting(index, level)) try {
+                _insert(e, index);
+                incrementTail(oldTail, insertingTail);
+                return SUCCESS;
+            } finally {
+                releasePutting(insertingTail, index);
+            }
+            else {
+                int result = onPuttingFail(index, level);
+                if (result != TRY_AGAIN) return result;
+                backoff.backoff(++fails);
+            }
+        }
+        return INTERRUPTED;
+    }
+
+    /**
+     * @return next operation after putting fail
+     */
+    private int onPuttingFail(int index, long level) {
+        final long current = _level(index);
+
+        if (current == PUTTING) return GO_NEXT;
+        else if (current == POOLING || current == level) return TRY_AGAIN;
+        else return GET_CURRENT_TAIL;
+    }
+
+    private void releasePutting(long currentTail, int index) {
+        long nextLevel = getLevelAfterSet(currentTail);
+        _releaseLevel(index, PUTTING, nextLevel);
+    }
+
+    final long getLevelBeforeSet(long currentTail) {
+        return -computeLevel(currentTail);
+    }
+
+    final long getLevelAfterSet(long currentTail) {
+        long nextLevelCounter = nextLevelCounter(currentTail);
+        return computeLevel(nextLevelCounter);
+    }
+
+    final long beforeGetLevel(long currentHead) {
+        return getLevelAfterSet(currentHead);
+    }
+
+    final long afterGetLevel(long currentHead) {
+        return -beforeGetLevel(currentHead);
+    }
+
+    /**
+     * locks the cell for putting, a queue which counters are never reset can drop the wraparound fallback
+     *
+     * @param level the level of the cell before set
+     */
+    protected boolean lockPutting(int index, long level) {
+        //level2 is needed for case when tail overflowed and reset to 0
+        final long level2 = (level == 0) ? getLevelBeforeSet(max_sequence_value() + 1L) : level;
+        return _levelCas(index, level, PUTTING) || _levelCas(index, level2, PUTTING);
+    }
+
+    @Nullable
+    @Override
+    protected final E get(final long head, final long currentHead) {
+        int fails = 0;
+        while (isNotInterrupted()) {
+            final int index = computeIndex(currentHead);
+            final long level = beforeGetLevel(currentHead);
+            if (lockPooling(index, level)) try {
+                final E e = _retrieve(index);
+                assert e != null;
+
+                incrementHead(head, currentHead);
+                return e;
+            } finally {
+                releasePooling(currentHead, index);
+            }
+            else if (isStopTryPooling(index, level)) {
+                return null;
+            } else {
+                backoff.backoff(++fails);
+            }
+        }
+        return null;
+    }
+
+    private boolean isStopTryPooling(int index, long level) {
+        final long current = _level(index);
+        return !(current == PUTTING || level == current);
+    }
+
+    private void releasePooling(long currentHead, int index) {
+        final long nextLevel = afterGetLevel(currentHead);
+        _releaseLevel(index, POOLING, nextLevel);
+    }
+
+    private boolean lockPooling(int index, long level) {
+        return _levelCas(index, level, POOLING);
+    }
+
+    protected long nextLevelCounter(long counter) {
+        if (counter == MAX_VALUE) return 0;
+        int capacity = capacity();
+        return counter - (counter % capacity) + capacity;
+    }
+
+    private final class WeakIterator implements Iterator<E> {
+        private final long tail;
+        private long counter;
+        @Nullable
+        private E next;
+
+        WeakIterator() {
+            //the head never passes the tail
+            counter = getHead();
+            tail = getTail();
+            advance();
+        }
+
+        private void advance() {
+            next = null;
+            while (next == null && counter != tail) {
+                next = _peek(counter);
+                counter = _increment(counter);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @NotNull
+        @Override
+        public E next() {
+            final E e = next;
+            if (e == null) throw new NoSuchElementException();
+            advance();
+            return e;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The cells of {@link AbstractCellsQueue} for queues of primitive values, subclasses keep the values
+ * in a primitive array and lock the cells by their levels like {@link ConcurrentArrayQueue}.
+ *
+ * @author Bulgakov Alex
+ */
+public abstract class AbstractPrimitiveArrayQueue extends AbstractCellsQueue {
+
+    protected final PaddedSequence tailSequence = new PaddedSequence();
+    protected final PaddedSequence headSequence = new PaddedSequence();
+
+    @NotNull
+    protected final AtomicLongArray levels;
+
+    protected AbstractPrimitiveArrayQueue(int capacity) {
+        super(capacity);
+        this.levels = new AtomicLongArray(capacity);
+    }
+
+    @Override
+    protected final long getTail() {
+        return tailSequence.get();
+    }
+
+    @Override
+    protected final long getHead() {
+        return headSequence.get();
+    }
+
+    @Override
+    protected final boolean casTail(long expect, long update) {
+        return tailSequence.compareAndSet(expect, update);
+    }
+
+    @Override
+    protected final boolean casHead(long expect, long update) {
+        return headSequence.compareAndSet(expect, update);
+    }
+
+    @Override
+    protected final long getLevel(long counter) {
+        return levels.get(computeIndex(counter));
+    }
+
+    @Override
+    protected final void setLevel(long counter, long level) {
+        levels.set(computeIndex(counter), level);
+    }
+
+    @Override
+    protected final boolean casLevel(long counter, long expect, long update) {
+        return levels.compareAndSet(computeIndex(counter), expect, update);
+    }
+
+    protected final int computeIndex(long counter) {
+        return (int) (counter % capacity());
+    }
+
+    public int size() {
+        final long head = headSequence.get();
+        final long tail = tailSequence.get();
+        return (int) Math.min(tail - head, capacity());
+    }
+
+    public boolean isEmpty() {
+        return headSequence.get() >= tailSequence.get();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "h: " + headSequence + ", t: " + tailSequence + ", c:" + capacity() + "\n" + levels;
+    }
+}
@@ -0,0 +1,220 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link BackoffStrategy} implementations. A backoff spins with {@link Thread#onSpinWait()},
+ * the thread is never parked, so the waiting time is bounded by the max spins.
+ *
+ * @author Bulgakov Alex
+ */
+public final class BackoffStrategies {
+
+    public static final int DEFAULT_MAX_SPINS = 1 << 10;
+
+    /**
+     * retries immediately, the queues spin this way by default
+     */
+    public static final BackoffStrategy NONE = new BackoffStrategy() {
+        @Override
+        public void backoff(int fails) {
+        }
+
+        @Override
+        public void completed(int fails) {
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "none";
+        }
+    };
+
+    private BackoffStrategies() {
+    }
+
+    @NotNull
+    public static BackoffStrategy exponential() {
+        return exponential(1, DEFAULT_MAX_SPINS);
+    }
+
+    /**
+     * doubles the spins with every fail of an operation
+     */
+    @NotNull
+    public static BackoffStrategy exponential(int minSpins, int maxSpins) {
+        return new Exponential(minSpins, maxSpins);
+    }
+
+    @NotNull
+    public static BackoffStrategy randomized() {
+        return randomized(DEFAULT_MAX_SPINS);
+    }
+
+    /**
+     * spins a random amount up to a doubling bound, the threads failed together retry at different times
+     */
+    @NotNull
+    public static BackoffStrategy randomized(int maxSpins) {
+        return new Randomized(maxSpins);
+    }
+
+    @NotNull
+    public static BackoffStrategy contention() {
+        return contention(DEFAULT_MAX_SPINS);
+    }
+
+    /**
+     * spins proportionally to the recent amount of fails per an operation of the threads sharing a stripe,
+     * so the first fail of an operation already waits if the queue is contended
+     */
+    @NotNull
+    public static BackoffStrategy contention(int maxSpins) {
+        return new Contention(maxSpins);
+    }
+
+    /**
+     * @return the strategy by the name of its factory method
+     */
+    @NotNull
+    public static BackoffStrategy byName(@NotNull String name) {
+        switch (name) {
+            case "none":
+                return NONE;
+            case "exponential":
+                return exponential();
+            case "randomized":
+                return randomized();
+            case "contention":
+                return contention();
+            default:
+                throw new IllegalArgumentException("unknown backoff strategy " + name);
+        }
+    }
+
+    static void spin(int spins) {
+        for (int i = 0; i < spins; i++) Thread.onSpinWait();
+    }
+
+    private static int checkSpins(int spins) {
+        if (spins <= 0) throw new IllegalArgumentException("spins " + spins);
+        return spins;
+    }
+
+    /**
+     * @return 2^exponent limited by the max
+     */
+    private static int power(int exponent, int max) {
+        return exponent >= 31 ? max : (int) Math.min(1L << exponent, max);
+    }
+
+    private static final class Exponential implements BackoffStrategy {
+        private final int minSpins;
+        private final int maxSpins;
+
+        Exponential(int minSpins, int maxSpins) {
+            this.minSpins = checkSpins(minSpins);
+            this.maxSpins = checkSpins(maxSpins);
+            if (minSpins > maxSpins) throw new IllegalArgumentException("minSpins " + minSpins + ", maxSpins " + maxSpins);
+        }
+
+        @Override
+        public void backoff(int fails) {
+            spin((int) Math.min((long) minSpins * power(fails - 1, maxSpins), maxSpins));
+        }
+
+        @Override
+        public void completed(int fails) {
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "exponential " + minSpins + ".." + maxSpins;
+        }
+    }
+
+    private static final class Randomized implements BackoffStrategy {
+        private final int maxSpins;
+
+        Randomized(int maxSpins) {
+            this.maxSpins = checkSpins(maxSpins);
+        }
+
+        @Override
+        public void backoff(int fails) {
+            spin(ThreadLocalRandom.current().nextInt(power(fails, maxSpins)) + 1);
+        }
+
+        @Override
+        public void completed(int fails) {
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "randomized .." + maxSpins;
+        }
+    }
+
+    private static final class Contention implements BackoffStrategy {
+        /**
+         * the weight of the last operation in the estimate is 1/2^SHIFT
+         */
+        private static final int SHIFT = 2;
+        private static final int MAX_STRIPES = 64;
+
+        private final int maxSpins;
+
+        /**
+         * moving averages of the fails per an operation multiplied by 2^SHIFT, the operations without fails
+         * decay them. A thread updates the stripe of its id, the threads of a stripe overwrite each other's updates,
+         * it is an estimate
+         */
+        private final PaddedSequence[] stripes;
+
+        Contention(int maxSpins) {
+            this.maxSpins = checkSpins(maxSpins);
+            final int processors = Runtime.getRuntime().availableProcessors();
+            final int stripes = Math.min(Integer.highestOneBit(Math.max(processors - 1, 1)) << 1, MAX_STRIPES);
+            this.stripes = new PaddedSequence[stripes];
+            for (int i = 0; i < stripes; i++) this.stripes[i] = new PaddedSequence();
+        }
+
+        @NotNull
+        private PaddedSequence stripe() {
+            final PaddedSequence[] stripes = this.stripes;
+            return stripes[(int) Thread.currentThread().getId() & (stripes.length - 1)];
+        }
+
+        @Override
+        public void backoff(int fails) {
+            final long spins = ((stripe().getOpaque() >> SHIFT) + 1) * fails;
+            spin((int) Math.min(spins, maxSpins));
+        }
+
+        @Override
+        public void completed(int fails) {
+            final PaddedSequence stripe = stripe();
+            final long value = stripe.getOpaque();
+            final long next = value - (value >> SHIFT) + Math.min(fails, maxSpins);
+            if (next != value) stripe.lazySet(next);
+        }
+
+        /**
+         * @return the estimate of the current thread's stripe
+         */
+        long estimate() {
+            return stripe().getOpaque() >> SHIFT;
+        }
+
+        @NotNull
+        @Override
+        public String toString() {
+            return "contention .." + maxSpins + ", estimate " + estimate();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package buls.util.concurrent;
+
+/**
+ * Decides how long a thread waits after a failed attempt to lock a cell or to move a counter.
+ * <p/>
+ * A strategy is shared by all threads of a queue, it keeps no state of an operation,
+ * the operation passes the amount of its fails. See {@link BackoffStrategies} for the implementations.
+ * The retries of a locked cell inside an attempt call {@link #backoff(int)} with their own count.
+ *
+ * @author Bulgakov Alex
+ */
+public interface BackoffStrategy {
+
+    /**
+     * is called after a failed attempt, before the next one
+     *
+     * @param fails amount of the failed attempts of the current operation, starts from 1
+     */
+    void backoff(int fails);
+
+    /**
+     * is called when an operation succeeds or gives up, the operations without fails are reported too
+     *
+     * @param fails amount of the failed attempts of the operation, 0 if the first attempt succeeded
+     */
+    void completed(int fails);
+}
@@ -0,0 +1,206 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A bounded {@linkplain BlockingQueue blocking queue} on top of the {@link ConcurrentArrayQueue} cells protocol.
+ * <p/>
+ * Non-blocking operations are inherited as is, so the lock-free path stays untouched while the queue is busy.
+ * A waiting thread spins at first, then yields and finally registers itself as a waiter and parks
+ * until an opposite operation signals it. Signals cost a single emptiness check when nobody waits.
+ *
+ * @author Bulgakov Alex
+ */
+public class BlockingConcurrentArrayQueue<E> extends ConcurrentArrayQueue<E> implements BlockingQueue<E> {
+
+    public static final int SPINS = 128;
+    public static final int YIELDS = 16;
+
+    private final Waiters notEmpty = new Waiters();
+    private final Waiters notFull = new Waiters();
+
+    public BlockingConcurrentArrayQueue(int capacity) {
+        super(capacity, false);
+    }
+
+    /**
+     * @throws NullPointerException if the element is null, as {@link BlockingQueue} requires
+     */
+    @Override
+    public boolean offer(@Nullable E e) {
+        if (e == null) throw new NullPointerException("element cannot be null");
+        if (super.offer(e)) {
+            notEmpty.signal();
+            return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    @Override
+    public E poll() {
+        final E e = super.poll();
+        if (e != null) notFull.signal();
+        return e;
+    }
+
+    @Override
+    public int offerBatch(@NotNull E[] batch, int from, int to) {
+        final int amount = super.offerBatch(batch, from, to);
+        notEmpty.signal(amount);
+        return amount;
+    }
+
+    @Override
+    public int drain(@NotNull Consumer<? super E> consumer, int maxElements) {
+        final int amount = super.drain(consumer, maxElements);
+        notFull.signal(amount);
+        return amount;
+    }
+
+    @Override
+    public void put(@NotNull E e) throws InterruptedException {
+        if (e == null) throw new NullPointerException("element cannot be null");
+        awaitOffer(e, false, 0);
+    }
+
+    @Override
+    public boolean offer(@NotNull E e, long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        if (e == null) throw new NullPointerException("element cannot be null");
+        return awaitOffer(e, true, unit.toNanos(timeout));
+    }
+
+    @NotNull
+    @Override
+    public E take() throws InterruptedException {
+        final E e = awaitPoll(false, 0);
+        assert e != null;
+        return e;
+    }
+
+    @Nullable
+    @Override
+    public E poll(long timeout, @NotNull TimeUnit unit) throws InterruptedException {
+        return awaitPoll(true, unit.toNanos(timeout));
+    }
+
+    @Override
+    public int remainingCapacity() {
+        return capacity() - size();
+    }
+
+    @Override
+    public int drainTo(@NotNull Collection<? super E> c) {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NotNull final Collection<? super E> c, int maxElements) {
+        if (c == this) throw new IllegalArgumentException("cannot drain to itself");
+        int amount = 0;
+        int drained;
+        final Consumer<E> consumer = new Consumer<E>() {
+            @Override
+            public void accept(E e) {
+                c.add(e);
+            }
+        };
+        while (amount < maxElements && (drained = drain(consumer, maxElements - amount)) > 0) {
+            amount += drained;
+        }
+        return amount;
+    }
+
+    private boolean awaitOffer(@NotNull E e, boolean timed, long nanos) throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        int attempt = 0;
+        while (true) {
+            if (offer(e)) return true;
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (timed && (nanos = deadline - System.nanoTime()) <= 0) return false;
+
+            if (attempt < SPINS + YIELDS) {
+                if (attempt++ >= SPINS) Thread.yield();
+            } else {
+                final Thread current = Thread.currentThread();
+                notFull.register(current);
+                try {
+                    //a cell could be released between the last attempt and the registration
+                    if (offer(e)) return true;
+                    park(timed, nanos);
+                } finally {
+                    notFull.unregister(current);
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private E awaitPoll(boolean timed, long nanos) throws InterruptedException {
+        final long deadline = timed ? System.nanoTime() + nanos : 0L;
+        int attempt = 0;
+        while (true) {
+            E e;
+            if ((e = poll()) != null) return e;
+            if (Thread.interrupted()) throw new InterruptedException();
+            if (timed && (nanos = deadline - System.nanoTime()) <= 0) return null;
+
+            if (attempt < SPINS + YIELDS) {
+                if (attempt++ >= SPINS) Thread.yield();
+            } else {
+                final Thread current = Thread.currentThread();
+                notEmpty.register(current);
+                try {
+                    //an element could be put between the last attempt and the registration
+                    if ((e = poll()) != null) return e;
+                    park(timed, nanos);
+                } finally {
+                    notEmpty.unregister(current);
+                }
+            }
+        }
+    }
+
+    private void park(boolean timed, long nanos) {
+        if (timed) LockSupport.parkNanos(this, nanos);
+        else LockSupport.park(this);
+    }
+
+    /**
+     * parked threads registry. A signal wakes up and removes the eldest waiter
+     */
+    private static final class Waiters {
+        private final ConcurrentLinkedQueue<Thread> threads = new ConcurrentLinkedQueue<>();
+
+        void register(@NotNull Thread thread) {
+            threads.offer(thread);
+        }
+
+        /**
+         * a woken up thread always retries its operation before waiting again,
+         * so a signal consumed by an unsuccessful attempt means the condition has been already changed
+         */
+        void unregister(@NotNull Thread thread) {
+            threads.remove(thread);
+        }
+
+        void signal() {
+            signal(1);
+        }
+
+        void signal(int amount) {
+            for (int i = 0; i < amount && !threads.isEmpty(); i++) {
+                final Thread thread = threads.poll();
+                if (thread != null) LockSupport.unpark(thread);
+            }
+        }
+    }
+}
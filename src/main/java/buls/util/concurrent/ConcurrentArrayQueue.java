@@ -1,7 +1,6 @@
 package buls.util.concurrent;
 
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.atomic.AtomicLongArray;
 
@@ -13,14 +12,28 @@ import java.util.concurrent.atomic.AtomicLongArray;
  * <p/>
  * Only atomic cas operations are used for the head and the tail counters.
  * {@linkplain java.util.concurrent.atomic.AtomicLongArray Atomic long array}
- * is used as the auxiliary array
+ * is used as the auxiliary array.
+ * <p/>
+ * Neighbouring levels share a cache line, so a producer locking a cell invalidates the line
+ * of a consumer locking the next cell. The levels can be spread by a stride: the stride 8 puts
+ * each level into its own 64 bytes line for the cost of 64 instead of 8 bytes per cell
+ * (640 MB of the levels instead of 80 MB for the 10M capacity).
+ * <p/>
+ * Only the locking thread moves a cell out of the putting or the pooling state, so the lazy release mode
+ * publishes the next level by {@link AtomicLongArray#lazySet(int, long)} instead of a CAS. The release store
+ * keeps the element's plain store or load before it, and it does not wait for the store buffer to drain.
+ * <p/>
+ * A producer or a consumer failed to lock a cell retries immediately, a {@link BackoffStrategy} can make it wait
+ * before the retry to lower the contention on the levels and the counters.
  *
  * @author Bulgakov Alex
  */
-public class ConcurrentArrayQueue<E> extends AbstractHeadTailArrayQueue<E> {
+public class ConcurrentArrayQueue<E> extends AbstractLevelArrayQueue<E> {
 
-    protected static final long PUTTING = Long.MAX_VALUE;
-    protected static final long POOLING = Long.MIN_VALUE;
+    /**
+     * the stride which puts a level per 64 bytes cache line
+     */
+    public static final int CACHE_LINE_STRIDE = 8;
 
     /**
      * auxiliary array is used as a lock per this queue's cell
@@ -28,135 +41,101 @@ public class ConcurrentArrayQueue<E> extends AbstractHeadTailArrayQueue<E> {
     @NotNull
     protected final AtomicLongArray levels;
 
+    /**
+     * levels array index of a cell is the cell index shifted by the value
+     */
+    private final int levelShift;
+
+    /**
+     * the cell's owner releases the cell by a release store instead of a CAS
+     */
+    private final boolean lazyRelease;
+
     public ConcurrentArrayQueue(int capacity) {
         this(capacity, false);
     }
 
     public ConcurrentArrayQueue(int capacity, boolean checkInterruption) {
-        super(capacity, checkInterruption);
-        levels = new AtomicLongArray(capacity);
-    }
-
-    @NotNull
-    @Override
-    public String toString() {
-        return super.toString() + "\n" + _levelsString();
-    }
-
-    @NotNull
-    protected String _levelsString() {
-        return levels.toString();
+        this(capacity, checkInterruption, 1);
     }
 
     /**
-     * @return SUCCESS, INTERRUPTED or result from onPuttingFail
+     * @param levelStride distance between levels of neighbouring cells, must be a power of two
      */
-    @Override
-    protected final int set(final E e, final long oldTail, final long insertingTail, long head) {
-        while (isNotInterrupted()) {
-            final int index = computeIndex(insertingTail);
-            final long level = getLevelBeforeSet(insertingTail);
-            //level2 is needed for case when tail overflowed and reset to 0
-            final long level2 = (level == 0) ? getLevelBeforeSet(max_sequence_value() + 1) : level;
-            if (lockPutting(index, level, level2)) try {
-                _insert(e, index);
-                incrementTail(oldTail, insertingTail);
-                return SUCCESS;
-            } finally {
-                releasePutting(insertingTail, index);
-            }
-            else {
-                int result = onPuttingFail(index, level);
-                if (result != TRY_AGAIN) return result;
-            }
-        }
-        return INTERRUPTED;
+    public ConcurrentArrayQueue(int capacity, boolean checkInterruption, int levelStride) {
+        this(capacity, checkInterruption, levelStride, false);
     }
 
     /**
-     * @return next operation after putting fail
+     * @param lazyRelease true if a locked cell is released by a release store instead of a CAS
      */
-    private int onPuttingFail(int index, long level) {
-        final long current = _level(index);
-
-        if (current == PUTTING) return GO_NEXT;
-        else if (current == POOLING || current == level) return TRY_AGAIN;
-        else return GET_CURRENT_TAIL;
+    public ConcurrentArrayQueue(int capacity, boolean checkInterruption, int levelStride, boolean lazyRelease) {
+        this(capacity, checkInterruption, levelStride, lazyRelease, BackoffStrategies.NONE);
     }
 
-    private long _level(int index) {
-        return levels.get(index);
-    }
-
-    private boolean _levelCas(int index, long expect, long update) {
-        return levels.compareAndSet(index, expect, update);
+    /**
+     * @param backoff waiting after a failed attempt to lock a cell, {@link BackoffStrategies#NONE} retries immediately
+     */
+    public ConcurrentArrayQueue(int capacity, boolean checkInterruption, int levelStride, boolean lazyRelease,
+                                @NotNull BackoffStrategy backoff) {
+        super(capacity, checkInterruption, backoff);
+        levelShift = levelShift(levelStride);
+        levels = new AtomicLongArray(levelsLength(capacity, levelShift));
+        this.lazyRelease = lazyRelease;
     }
 
-    private void releasePutting(long currentTail, int index) {
-        long nextLevel = getLevelAfterSet(currentTail);
-        _levelCas(index, PUTTING, nextLevel);
+    protected ConcurrentArrayQueue(int capacity, boolean checkInterruption, int maxSequenceValue, int levelStride) {
+        super(capacity, checkInterruption, maxSequenceValue);
+        levelShift = levelShift(levelStride);
+        levels = new AtomicLongArray(levelsLength(capacity, levelShift));
+        this.lazyRelease = false;
     }
 
-    private long getLevelBeforeSet(long currentTail) {
-        return -computeLevel(currentTail);
+    private static int levelShift(int levelStride) {
+        if (levelStride <= 0 || Integer.bitCount(levelStride) != 1) {
+            throw new IllegalArgumentException("level stride must be a positive power of two, " + levelStride);
+        }
+        return Integer.numberOfTrailingZeros(levelStride);
     }
 
-    private long getLevelAfterSet(long currentTail) {
-        long nextLevelCounter = nextLevelCounter(currentTail);
-        return computeLevel(nextLevelCounter);
+    private static int levelsLength(int capacity, int levelShift) {
+        if (capacity > (Integer.MAX_VALUE >> levelShift)) {
+            throw new IllegalArgumentException("too big capacity " + capacity + " for level shift " + levelShift);
+        }
+        return capacity << levelShift;
     }
 
-    private long beforeGetLevel(long currentHead) {
-        return getLevelAfterSet(currentHead);
+    public final int levelStride() {
+        return 1 << levelShift;
     }
 
-    final long afterGetLevel(long currentHead) {
-        return -beforeGetLevel(currentHead);
+    public final boolean isLazyRelease() {
+        return lazyRelease;
     }
 
-    private boolean lockPutting(int index, long level, long level2) {
-        return _levelCas(index, level, PUTTING) || _levelCas(index, level2, PUTTING);
+    @NotNull
+    public final BackoffStrategy backoff() {
+        return backoff;
     }
 
-    @Nullable
     @Override
-    protected final E get(final long head, final long currentHead) {
-        while (isNotInterrupted()) {
-            final int index = computeIndex(currentHead);
-            final long level = beforeGetLevel(currentHead);
-            if (lockPooling(index, level)) try {
-                final E e = _retrieve(index);
-                assert e != null;
-
-                incrementHead(head, currentHead);
-                return e;
-            } finally {
-                releasePooling(currentHead, index);
-            }
-            else if (isStopTryPooling(index, level)) {
-                return null;
-            }
-        }
-        return null;
-    }
-
-    private boolean isStopTryPooling(int index, long level) {
-        final long current = _level(index);
-        return !(current == PUTTING || level == current);
+    protected final long _level(int index) {
+        return levels.get(index << levelShift);
     }
 
-    private void releasePooling(long currentHead, int index) {
-        final long nextLevel = afterGetLevel(currentHead);
-        _levelCas(index, POOLING, nextLevel);
+    @Override
+    protected final boolean _levelCas(int index, long expect, long update) {
+        return levels.compareAndSet(index << levelShift, expect, update);
     }
 
-    private boolean lockPooling(int index, long level) {
-        return _levelCas(index, level, POOLING);
+    @Override
+    protected final void _setLevel(int index, long level) {
+        levels.set(index << levelShift, level);
     }
 
-    protected long nextLevelCounter(long counter) {
-        if (counter == MAX_VALUE) return 0;
-        int capacity = capacity();
-        return counter - (counter % capacity) + capacity;
+    @Override
+    protected final void _releaseLevel(int index, long lockLevel, long level) {
+        if (lazyRelease) levels.lazySet(index << levelShift, level);
+        else levels.compareAndSet(index << levelShift, lockLevel, level);
     }
 }
@@ -0,0 +1,51 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A bounded thread-safe queue of long values kept in a long[] array, offer and poll do not allocate.
+ *
+ * @author Bulgakov Alex
+ * @see AbstractPrimitiveArrayQueue
+ */
+public class ConcurrentLongArrayQueue extends AbstractPrimitiveArrayQueue {
+
+    @NotNull
+    private final long[] values;
+
+    public ConcurrentLongArrayQueue(int capacity) {
+        super(capacity);
+        this.values = new long[capacity];
+    }
+
+    /**
+     * @return false if the queue is full
+     */
+    public boolean offer(long value) {
+        final long tail = lockTail();
+        if (tail < 0) return false;
+        values[computeIndex(tail)] = value;
+        releaseTail(tail);
+        return true;
+    }
+
+    /**
+     * retrieves the head value into the holder
+     *
+     * @return false if the queue is empty, the holder is not changed then
+     */
+    public boolean poll(@NotNull Holder holder) {
+        final long head = lockHead();
+        if (head < 0) return false;
+        holder.value = values[computeIndex(head)];
+        releaseHead(head);
+        return true;
+    }
+
+    /**
+     * a reusable receiver of polled values
+     */
+    public static final class Holder {
+        public long value;
+    }
+}
@@ -0,0 +1,37 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * Creates the cheapest array queue for the declared amount of producer and consumer threads.
+ * The declaration is not checked, an offer or a poll from an undeclared thread can break the queue.
+ *
+ * @author Bulgakov Alex
+ */
+public final class ConcurrentQueues {
+
+    private ConcurrentQueues() {
+    }
+
+    /**
+     * @param singleProducer only one thread offers elements at a time
+     * @param singleConsumer only one thread polls elements at a time
+     */
+    @NotNull
+    public static <E> Queue<E> newArrayQueue(int capacity, boolean singleProducer, boolean singleConsumer) {
+        if (singleProducer && singleConsumer) return new SpscArrayQueue<>(capacity);
+        else if (singleConsumer) return new MpscArrayQueue<>(capacity);
+        else if (singleProducer) return new SpmcArrayQueue<>(capacity);
+        else return new ConcurrentArrayQueue<>(capacity);
+    }
+
+    /**
+     * @return queue for any amount of producers and consumers
+     */
+    @NotNull
+    public static <E> Queue<E> newArrayQueue(int capacity) {
+        return newArrayQueue(capacity, false, false);
+    }
+}
@@ -0,0 +1,146 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * {@link ConcurrentArrayQueue} with an elimination arena where a producer and a consumer which failed to lock
+ * a cell hand an element over directly, without touching the cells and the counters.
+ * <p/>
+ * A failed producer puts its element into a random arena slot and spins a while; if a consumer takes it,
+ * the offer is done, otherwise the producer takes the element back and retries the usual way.
+ * A failed consumer looks into a random slot and takes an element from it if there is one, otherwise it retries.
+ * The producers wait and the consumers do not, so a slot is changed by at most one producer and one consumer.
+ * <p/>
+ * An exchanged element overtakes the elements which are already in the queue, the order of the queue is kept
+ * only for the elements which were offered without contention. Uncontended offers and polls never visit the arena.
+ * The arena is visited through the {@link #exchangeSet(Object)} and {@link #exchangeGet()} hooks of the retry loops,
+ * so the {@link BackoffStrategy} is applied after a visit which did not help.
+ *
+ * @author Bulgakov Alex
+ */
+public class EliminationConcurrentArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    public static final int DEFAULT_ARENA_SIZE = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+
+    /**
+     * how long a producer waits for a consumer in a slot
+     */
+    public static final int ARENA_SPINS = 1 << 6;
+
+    private static final long PARK_NANOS = 1_000;
+
+    /**
+     * slots are spread by the stride, 16 compressed references make a 64 bytes line
+     */
+    private static final int SLOT_SHIFT = 4;
+
+    @NotNull
+    private final AtomicReferenceArray<Object> arena;
+    private final int arenaSize;
+    private final LongAdder exchanges = new LongAdder();
+
+    public EliminationConcurrentArrayQueue(int capacity) {
+        this(capacity, DEFAULT_ARENA_SIZE);
+    }
+
+    public EliminationConcurrentArrayQueue(int capacity, int arenaSize) {
+        this(capacity, false, arenaSize);
+    }
+
+    /**
+     * @param arenaSize amount of the slots, about a half of the contending threads
+     */
+    public EliminationConcurrentArrayQueue(int capacity, boolean checkInterruption, int arenaSize) {
+        this(capacity, checkInterruption, arenaSize, BackoffStrategies.NONE);
+    }
+
+    /**
+     * @param arenaSize amount of the slots, about a half of the contending threads
+     * @param backoff   is applied after a failed attempt which the arena did not help
+     */
+    public EliminationConcurrentArrayQueue(int capacity, boolean checkInterruption, int arenaSize,
+                                           @NotNull BackoffStrategy backoff) {
+        super(capacity, checkInterruption, 1, false, backoff);
+        if (arenaSize <= 0) throw new IllegalArgumentException("arenaSize " + arenaSize);
+        this.arenaSize = arenaSize;
+        this.arena = new AtomicReferenceArray<>(arenaSize << SLOT_SHIFT);
+    }
+
+    @Override
+    protected final boolean exchangeSet(@NotNull E e) {
+        return exchangeOffer(e);
+    }
+
+    @Nullable
+    @Override
+    protected final E exchangeGet() {
+        return exchangePoll();
+    }
+
+    /**
+     * @return true if a consumer has taken the element from the arena
+     */
+    final boolean exchangeOffer(@NotNull E e) {
+        return exchangeOffer(e, ARENA_SPINS);
+    }
+
+    /**
+     * @param spins how long the producer waits, it is parked after {@link #ARENA_SPINS} spins
+     * @return true if a consumer has taken the element from the arena
+     */
+    final boolean exchangeOffer(@NotNull E e, int spins) {
+        final int slot = randomSlot();
+        if (!arena.compareAndSet(slot, null, e)) return false;
+
+        for (int i = 0; i < spins; i++) {
+            if (arena.get(slot) != e) return exchanged();
+            if (i < ARENA_SPINS) Thread.onSpinWait();
+            else LockSupport.parkNanos(PARK_NANOS);
+        }
+        //a consumer can take the element before it is taken back
+        return !arena.compareAndSet(slot, e, null) && exchanged();
+    }
+
+    /**
+     * @return an element of a waiting producer or null
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    final E exchangePoll() {
+        final int slot = randomSlot();
+        final Object e = arena.get(slot);
+        return e != null && arena.compareAndSet(slot, e, null) ? (E) e : null;
+    }
+
+    private boolean exchanged() {
+        exchanges.increment();
+        return true;
+    }
+
+    private int randomSlot() {
+        return ThreadLocalRandom.current().nextInt(arenaSize) << SLOT_SHIFT;
+    }
+
+    public final int arenaSize() {
+        return arenaSize;
+    }
+
+    /**
+     * @return amount of the elements handed over by the arena
+     */
+    public long exchanges() {
+        return exchanges.sum();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return super.toString() + "\nexchanges: " + exchanges();
+    }
+}
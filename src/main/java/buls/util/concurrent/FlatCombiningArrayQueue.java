@@ -0,0 +1,284 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A bounded thread-safe {@linkplain java.util.Queue queue} backed by an array which is changed
+ * by one combiner thread at a time.
+ * <p/>
+ * A thread which finds the combiner lock free takes it, applies its own offer or poll to the array
+ * and then applies the requests published by other threads. A thread which finds the lock taken publishes
+ * its request into a free slot of the publication array and spins on the slot until a combiner answers it
+ * or the lock is released, then it tries to become the combiner itself. So under contention the counters
+ * and the cells are changed by a single thread in a batch, they do not move between the cores' caches
+ * for every operation, and a waiting thread spins on its own slot only.
+ * <p/>
+ * A slot is free (null), keeps a request (an element to offer or a poll marker) or the {@code DONE} marker
+ * with the response. Only the requesting thread frees its slot, only the combiner answers a request.
+ * The order is FIFO by the moments the combiner applies the requests.
+ *
+ * @author Bulgakov Alex
+ */
+public class FlatCombiningArrayQueue<E> extends AbstractArrayQueue<E> {
+
+    public static final int DEFAULT_SLOTS = Math.min(Runtime.getRuntime().availableProcessors() * 2, 64);
+
+    /**
+     * spins of a waiting thread before it yields the processor to a preempted combiner
+     */
+    public static final int WAIT_SPINS = 1 << 8;
+
+    private static final Object POLL = new Object();
+    private static final Object DONE = new Object();
+
+    private final PaddedSequence combinerLock = new PaddedSequence();
+    /**
+     * the counters are changed by the combiner only, other threads read them for the size
+     */
+    private final PaddedSequence tailSequence = new PaddedSequence();
+    private final PaddedSequence headSequence = new PaddedSequence();
+
+    @NotNull
+    private final Slot[] slots;
+
+    public FlatCombiningArrayQueue(int capacity) {
+        this(capacity, DEFAULT_SLOTS);
+    }
+
+    /**
+     * @param slots amount of requests which can wait for the combiner, about the amount of the contending threads
+     */
+    public FlatCombiningArrayQueue(int capacity, int slots) {
+        super(capacity);
+        if (slots <= 0) throw new IllegalArgumentException("slots " + slots);
+        this.slots = new Slot[slots];
+        for (int i = 0; i < slots; i++) this.slots[i] = new Slot();
+    }
+
+    @Override
+    public boolean offer(@Nullable E e) {
+        if (e == null) throw nullElement();
+        if (tryLock()) {
+            try {
+                return _offer(e);
+            } finally {
+                combineAndUnlock();
+            }
+        }
+        return (Boolean) request(e);
+    }
+
+    @Nullable
+    @Override
+    public E poll() {
+        if (tryLock()) {
+            try {
+                return _poll();
+            } finally {
+                combineAndUnlock();
+            }
+        }
+        return cast(request(POLL));
+    }
+
+    @Nullable
+    @Override
+    public E peek() {
+        lock();
+        try {
+            final long head = headSequence.get();
+            return head != tailSequence.get() ? _get(computeIndex(head)) : null;
+        } finally {
+            combineAndUnlock();
+        }
+    }
+
+    /**
+     * publishes the request and waits for the response, combines the requests if the lock is released
+     */
+    @Nullable
+    private Object request(@NotNull Object request) {
+        final Slot slot = publish(request);
+        int spins = 0;
+        while (true) {
+            if (slot.request == DONE) return slot.take();
+            if (combinerLock.get() == 0 && tryLock()) {
+                combineAndUnlock();
+                assert slot.request == DONE;
+            } else if (++spins < WAIT_SPINS) {
+                Thread.onSpinWait();
+            } else {
+                spins = 0;
+                Thread.yield();
+            }
+        }
+    }
+
+    @NotNull
+    private Slot publish(@NotNull Object request) {
+        final Slot[] slots = this.slots;
+        int index = (int) (Thread.currentThread().getId() % slots.length);
+        while (true) {
+            for (int i = 0; i < slots.length; i++) {
+                final Slot slot = slots[index];
+                if (slot.request == null && slot.claim(request)) return slot;
+                if (++index == slots.length) index = 0;
+            }
+            //more contending threads than slots
+            Thread.yield();
+        }
+    }
+
+    /**
+     * answers the published requests and releases the lock
+     */
+    private void combineAndUnlock() {
+        try {
+            for (Slot slot : slots) {
+                final Object request = slot.request;
+                if (request == null || request == DONE) continue;
+                slot.answer(request == POLL ? _poll() : (Object) _offer(cast(request)));
+            }
+        } finally {
+            combinerLock.lazySet(0);
+        }
+    }
+
+    private boolean tryLock() {
+        return combinerLock.compareAndSet(0, 1);
+    }
+
+    private void lock() {
+        while (!tryLock()) Thread.yield();
+    }
+
+    /**
+     * is called by the combiner only
+     */
+    private boolean _offer(@NotNull E e) {
+        final long tail = tailSequence.get();
+        if (tail - headSequence.get() >= capacity()) return false;
+        _insert(e, computeIndex(tail));
+        tailSequence.lazySet(tail + 1);
+        return true;
+    }
+
+    /**
+     * is called by the combiner only
+     */
+    @Nullable
+    private E _poll() {
+        final long head = headSequence.get();
+        if (head == tailSequence.get()) return null;
+        final E e = _retrieve(computeIndex(head));
+        headSequence.lazySet(head + 1);
+        return e;
+    }
+
+    private int computeIndex(long counter) {
+        return (int) (counter % capacity());
+    }
+
+    @Nullable
+    @SuppressWarnings("unchecked")
+    private static <E> E cast(@Nullable Object o) {
+        return (E) o;
+    }
+
+    public final int slots() {
+        return slots.length;
+    }
+
+    @Override
+    public int size() {
+        final long head = headSequence.get();
+        final long tail = tailSequence.get();
+        return (int) Math.max(0, Math.min(tail - head, capacity()));
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return headSequence.get() >= tailSequence.get();
+    }
+
+    /**
+     * @return iterator over a snapshot of the elements taken under the combiner lock
+     */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> elements = new ArrayList<>(size());
+        lock();
+        try {
+            for (long counter = headSequence.get(); counter != tailSequence.get(); counter++) {
+                elements.add(_get(computeIndex(counter)));
+            }
+        } finally {
+            combineAndUnlock();
+        }
+        return Collections.unmodifiableList(elements).iterator();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "h: " + headSequence + ", t: " + tailSequence + ", c:" + capacity() + ", s:" + slots.length;
+    }
+
+    /**
+     * a publication record, the padding keeps a waiting thread from invalidating the line of a neighbouring slot.
+     * The padding goes through the class hierarchy as in {@link PaddedSequence}, the JVM may reorder fields of one class
+     */
+    private static final class Slot extends SlotRightPadding {
+        private static final VarHandle REQUEST;
+
+        static {
+            try {
+                REQUEST = MethodHandles.lookup().findVarHandle(SlotFields.class, "request", Object.class);
+            } catch (NoSuchFieldException | IllegalAccessException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        boolean claim(@NotNull Object request) {
+            return REQUEST.compareAndSet(this, null, request);
+        }
+
+        void answer(@Nullable Object response) {
+            this.response = response;
+            this.request = DONE;
+        }
+
+        @Nullable
+        Object take() {
+            final Object response = this.response;
+            this.response = null;
+            this.request = null;
+            return response;
+        }
+    }
+}
+
+abstract class SlotLeftPadding {
+    protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SlotFields extends SlotLeftPadding {
+    volatile Object request;
+    /**
+     * is written by the combiner before the DONE marker and is read after it
+     */
+    Object response;
+}
+
+abstract class SlotRightPadding extends SlotFields {
+    protected long p09, p10, p11, p12, p13, p14, p15;
+}
@@ -0,0 +1,68 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A bounded queue which storage grows from an initial capacity up to a max capacity.
+ * <p/>
+ * The storage is a list of {@link UnboundedConcurrentArrayQueue} chunks. The next chunk doubles
+ * the exhausted one if consumers are behind (more than a half of the exhausted chunk's capacity is not retrieved),
+ * otherwise it halves the exhausted one down to the initial capacity. So the memory grows only under
+ * a sustained pressure and returns to the initial capacity when the pressure stops.
+ * <p/>
+ * The bound is checked once per a chunk: a chunk is linked only if the amount of not retrieved elements
+ * plus the chunk's capacity does not exceed the max capacity, and the chunk is cut to fit otherwise.
+ *
+ * @author Bulgakov Alex
+ */
+public class GrowableConcurrentArrayQueue<E> extends UnboundedConcurrentArrayQueue<E> {
+
+    private final int initialCapacity;
+    private final int maxCapacity;
+
+    public GrowableConcurrentArrayQueue(int initialCapacity, int maxCapacity) {
+        this(initialCapacity, maxCapacity, DEFAULT_POOL_SIZE);
+    }
+
+    public GrowableConcurrentArrayQueue(int initialCapacity, int maxCapacity, int poolSize) {
+        super(poolSize, new Chunk<E>(checkCapacities(initialCapacity, maxCapacity)));
+        this.initialCapacity = initialCapacity;
+        this.maxCapacity = maxCapacity;
+    }
+
+    private static int checkCapacities(int initialCapacity, int maxCapacity) {
+        if (initialCapacity < 0 || initialCapacity > maxCapacity || (initialCapacity == 0 && maxCapacity > 0)) {
+            throw new IllegalArgumentException("initialCapacity " + initialCapacity + ", maxCapacity " + maxCapacity);
+        }
+        return initialCapacity;
+    }
+
+    @Override
+    protected int nextChunkCapacity(@NotNull Chunk<E> exhausted) {
+        final int capacity = exhausted.capacity();
+        //consumers can only decrease the size while the chunks are locked
+        final int size = size();
+        final int next = size > capacity >>> 1
+                ? (int) Math.min((long) capacity << 1, maxCapacity)
+                : Math.max(capacity >>> 1, initialCapacity);
+        final long free = maxCapacity - (long) size;
+        return (int) Math.max(0, Math.min(next, free));
+    }
+
+    public final int initialCapacity() {
+        return initialCapacity;
+    }
+
+    public final int maxCapacity() {
+        return maxCapacity;
+    }
+
+    /**
+     * @return capacity of the linked chunks
+     */
+    public int allocatedCapacity() {
+        long capacity = 0;
+        for (Chunk<E> chunk = headChunk(); chunk != null; chunk = chunk.next) capacity += chunk.capacity();
+        return (int) capacity;
+    }
+}
@@ -0,0 +1,158 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+
+/**
+ * An {@link OffHeapArrayQueue} which buffer is a mapped file, so the queued records survive a restart of the JVM.
+ * <p/>
+ * Records are written and read in place in the mapping. A new file is formatted, an existing one is recovered:
+ * the head and the tail are taken from the file's header, the positions which were claimed by killed producers
+ * and were not published or were aborted are dropped and the following records are moved down to close the holes.
+ * A record claimed by a killed consumer is considered as retrieved.
+ * <p/>
+ * The records survive a crash of the process, the operating system writes the mapping to the file.
+ * Call {@link #force()} to survive a crash of the system.
+ *
+ * @author Bulgakov Alex
+ */
+public class MappedArrayQueue extends OffHeapArrayQueue {
+
+    @NotNull
+    private final File file;
+    private final int discarded;
+
+    public MappedArrayQueue(@NotNull File file, int capacity, int recordSize) throws IOException {
+        this(file, capacity, recordSize, true);
+    }
+
+    /**
+     * @param recover false if the file can be used by other processes, an existing queue is attached as is
+     */
+    protected MappedArrayQueue(@NotNull File file, int capacity, int recordSize, boolean recover) throws IOException {
+        this(file, map(file, capacity, recordSize), capacity, recordSize, recover);
+    }
+
+    private MappedArrayQueue(@NotNull File file, @NotNull Mapping mapping, int capacity, int recordSize,
+                             boolean recover) {
+        super(mapping.buffer, capacity, recordSize, false);
+        this.file = file;
+        this.discarded = mapping.created || !recover ? 0 : recover();
+    }
+
+    /**
+     * the file is checked and formatted under the file lock, so processes which open a new file at the same time
+     * format it once, the magic is re-read after the lock is taken
+     */
+    @NotNull
+    private static Mapping map(@NotNull File file, int capacity, int recordSize) throws IOException {
+        final int size = bufferSize(capacity, recordSize);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            final FileLock lock = lock(raf.getChannel());
+            try {
+                final long length = raf.length();
+                if (length != 0 && length != size) {
+                    throw new IllegalStateException("unexpected length " + length + " of " + file);
+                }
+                final boolean created = length == 0 || !isFormatted(raf);
+                //the mapping stays valid after the channel is closed
+                final MappedByteBuffer buffer = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+                buffer.order(ByteOrder.nativeOrder());
+                if (created) format(buffer, capacity, recordSize);
+                return new Mapping(buffer, created);
+            } finally {
+                lock.release();
+            }
+        }
+    }
+
+    /**
+     * the lock is held by the process, threads of this process which open the file at the same time wait in turn
+     */
+    @NotNull
+    private static FileLock lock(@NotNull FileChannel channel) throws IOException {
+        while (true) {
+            try {
+                return channel.lock();
+            } catch (OverlappingFileLockException e) {
+                Thread.yield();
+            }
+        }
+    }
+
+    /**
+     * the magic is written the last while formatting, a file without one was not completely formatted
+     */
+    private static boolean isFormatted(@NotNull RandomAccessFile raf) throws IOException {
+        raf.seek(MAGIC_OFFSET);
+        return raf.readInt() != 0;
+    }
+
+    /**
+     * is called once while opening, before the queue is shared
+     *
+     * @return amount of dropped positions
+     */
+    private int recover() {
+        final long head = getHead();
+        final long tail = getTail();
+        final long limit = head + capacity();
+
+        //close the holes of not published records
+        long published = head;
+        for (long counter = head; counter < tail; counter++) {
+            if (getLevel(counter) != computeLevel(counter) + 1) continue;
+            if (published != counter) {
+                final int from = recordOffset(counter);
+                buffer.duplicate().position(recordOffset(published))
+                        .put(buffer.duplicate().limit(from + recordSize()).position(from));
+                setLevel(published, computeLevel(published) + 1);
+            }
+            published++;
+        }
+        //free the cells of the dropped positions and the cells claimed by killed consumers
+        for (long counter = published; counter < limit; counter++) {
+            setLevel(counter, -computeLevel(counter));
+        }
+        setTail(published);
+        return (int) (tail - published);
+    }
+
+    /**
+     * writes the changes of the mapping to the file
+     */
+    public void force() {
+        ((MappedByteBuffer) buffer).force();
+    }
+
+    @NotNull
+    public final File file() {
+        return file;
+    }
+
+    /**
+     * @return amount of positions dropped by the recovery, they were claimed by killed producers
+     */
+    public final int discarded() {
+        return discarded;
+    }
+
+    private static final class Mapping {
+        @NotNull
+        final MappedByteBuffer buffer;
+        final boolean created;
+
+        Mapping(@NotNull MappedByteBuffer buffer, boolean created) {
+            this.buffer = buffer;
+            this.created = created;
+        }
+    }
+}
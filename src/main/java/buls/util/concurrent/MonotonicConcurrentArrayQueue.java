@@ -0,0 +1,71 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * {@link ConcurrentArrayQueue} which head and tail counters are never reset.
+ * <p/>
+ * The counters are 64-bit, they do not overflow in centuries of continuous work, so the counter's increment
+ * is an addition, the counter's CAS moves it forward only, and the level of the next round is the next
+ * multiple of the capacity. The cell lock has no fallback to the level of a reset tail, the set path does one CAS
+ * on the level. The other wraparound branches of the base protocol are never taken:
+ * a negative delta of the counters is only a stale read and is treated as a full queue like before.
+ *
+ * @author Bulgakov Alex
+ */
+public class MonotonicConcurrentArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    public MonotonicConcurrentArrayQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    public MonotonicConcurrentArrayQueue(int capacity, boolean checkInterruption) {
+        this(capacity, checkInterruption, 1, false);
+    }
+
+    public MonotonicConcurrentArrayQueue(int capacity, boolean checkInterruption, int levelStride,
+                                         boolean lazyRelease) {
+        super(capacity, checkInterruption, levelStride, lazyRelease);
+    }
+
+    /**
+     * the tail is never reset to 0, so the cell keeps the level of its counter only
+     */
+    @Override
+    protected final boolean lockPutting(int index, long level) {
+        return _levelCas(index, level, PUTTING);
+    }
+
+    @Override
+    protected final long _increment(long counter) {
+        return counter + 1;
+    }
+
+    @Override
+    protected final long nextLevelCounter(long counter) {
+        final int capacity = capacity();
+        return counter - (counter % capacity) + capacity;
+    }
+
+    @Override
+    protected final boolean incrementTail(long oldTail, long insertedTail) {
+        return advance(tailSequence, oldTail, insertedTail + 1);
+    }
+
+    @Override
+    protected final boolean incrementHead(long oldHead, long nextHead) {
+        return advance(headSequence, oldHead, nextHead + 1);
+    }
+
+    /**
+     * moves the counter forward unless another thread has moved it further
+     */
+    private static boolean advance(@NotNull PaddedSequence sequence, long expect, long update) {
+        if (sequence.compareAndSet(expect, update)) return true;
+        while (true) {
+            final long current = sequence.get();
+            if (current >= update) return false;
+            if (sequence.compareAndSet(current, update)) return true;
+        }
+    }
+}
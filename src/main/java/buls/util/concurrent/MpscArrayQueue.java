@@ -0,0 +1,50 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link ConcurrentArrayQueue} for many producer threads and exactly one consumer thread.
+ * <p/>
+ * Producers follow the usual cells protocol. The consumer is the only writer of the head counter and
+ * the only reader of filled cells, so it takes an element without locking the cell and moves the head
+ * by an ordered write instead of a CAS.
+ * <p/>
+ * Calling {@link #poll()} or {@link #drain(java.util.function.Consumer, int)} from several threads breaks the queue.
+ *
+ * @author Bulgakov Alex
+ */
+public class MpscArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    public MpscArrayQueue(int capacity) {
+        super(capacity);
+    }
+
+    public MpscArrayQueue(int capacity, boolean checkInterruption) {
+        super(capacity, checkInterruption);
+    }
+
+    @Nullable
+    @Override
+    public E poll() {
+        if (capacity() == 0) return null;
+
+        final long head = getHead();
+        final int index = computeIndex(head);
+        final long level = beforeGetLevel(head);
+        long current;
+        while ((current = _level(index)) != level) {
+            //the cell waits for a producer
+            if (current != PUTTING || getTail() == head) return null;
+            //a producer has already moved the tail and releases the cell soon
+            if (!isNotInterrupted()) return null;
+        }
+
+        final E e = _retrieve(index);
+        assert e != null;
+        //the head is moved before the cell release like in the usual protocol
+        headSequence.lazySet(_increment(head));
+        _setLevel(index, afterGetLevel(head));
+        successGet();
+        return e;
+    }
+}
@@ -0,0 +1,203 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * A bounded thread-safe queue of fixed-size binary records kept in a direct {@link ByteBuffer}.
+ * <p/>
+ * The counters, the levels and the records live in the buffer, so the heap holds nothing proportional
+ * to the capacity. The layout is a header with the tail and the head counters in their own cache lines
+ * followed by the cells, a cell is a level word and a record aligned to 8 bytes.
+ * <p/>
+ * The cells protocol is the one of {@link AbstractCellsQueue}: positions are claimed by a CAS
+ * on the counters, a record is handed over by its cell's level (-round free, round + 1 filled).
+ * Records are written and read in place by {@link RecordEncoder} and {@link RecordDecoder} flyweights.
+ * The counters and the levels are accessed by buffer view {@link VarHandle}s, their offsets are aligned to 8 bytes.
+ *
+ * @author Bulgakov Alex
+ */
+public class OffHeapArrayQueue extends AbstractCellsQueue {
+
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final VarHandle LONG = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    protected static final int MAGIC = 0x4F484151;
+    protected static final int MAGIC_OFFSET = 0;
+    protected static final int CAPACITY_OFFSET = 4;
+    protected static final int RECORD_SIZE_OFFSET = 8;
+    protected static final int TAIL_OFFSET = 64;
+    protected static final int HEAD_OFFSET = 128;
+    protected static final int HEADER_SIZE = 192;
+    protected static final int LEVEL_SIZE = 8;
+
+    @NotNull
+    protected final ByteBuffer buffer;
+    private final int recordSize;
+    private final int cellSize;
+
+    public OffHeapArrayQueue(int capacity, int recordSize) {
+        this(ByteBuffer.allocateDirect(bufferSize(capacity, recordSize)), capacity, recordSize, true);
+    }
+
+    /**
+     * @param buffer direct buffer of {@link #bufferSize(int, int)} bytes at least
+     * @param format true if the header must be written, false if the buffer already contains a queue
+     */
+    protected OffHeapArrayQueue(@NotNull ByteBuffer buffer, int capacity, int recordSize, boolean format) {
+        super(capacity);
+        if (!buffer.isDirect()) throw new IllegalArgumentException("buffer is not direct");
+        if (buffer.capacity() < bufferSize(capacity, recordSize)) {
+            throw new IllegalArgumentException("buffer capacity " + buffer.capacity());
+        }
+        this.buffer = buffer.order(ByteOrder.nativeOrder());
+        this.recordSize = recordSize;
+        this.cellSize = cellSize(recordSize);
+
+        if (format) format(this.buffer, capacity, recordSize);
+        else checkHeader();
+    }
+
+    /**
+     * @return bytes needed for the queue
+     */
+    public static int bufferSize(int capacity, int recordSize) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity " + capacity);
+        if (recordSize <= 0) throw new IllegalArgumentException("recordSize " + recordSize);
+        final long size = HEADER_SIZE + (long) capacity * cellSize(recordSize);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("capacity " + capacity + ", recordSize " + recordSize);
+        }
+        return (int) size;
+    }
+
+    private static int cellSize(int recordSize) {
+        return (LEVEL_SIZE + recordSize + 7) & ~7;
+    }
+
+    /**
+     * writes the header of an empty queue, the magic is written the last
+     *
+     * @param buffer direct buffer of the native order
+     */
+    protected static void format(@NotNull ByteBuffer buffer, int capacity, int recordSize) {
+        final int size = bufferSize(capacity, recordSize);
+        for (int offset = 0; offset < size; offset += 8) buffer.putLong(offset, 0);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putInt(RECORD_SIZE_OFFSET, recordSize);
+        INT.setVolatile(buffer, MAGIC_OFFSET, MAGIC);
+    }
+
+    private void checkHeader() {
+        final int magic = (int) INT.getVolatile(buffer, MAGIC_OFFSET);
+        final int capacity = buffer.getInt(CAPACITY_OFFSET);
+        final int recordSize = buffer.getInt(RECORD_SIZE_OFFSET);
+        if (magic != MAGIC || capacity != capacity() || recordSize != this.recordSize) {
+            throw new IllegalStateException("unexpected header: magic " + Integer.toHexString(magic)
+                    + ", capacity " + capacity + ", recordSize " + recordSize);
+        }
+    }
+
+    /**
+     * a partially written record is not published if the encoder throws, its position is skipped by consumers
+     *
+     * @return false if the queue is full
+     */
+    public boolean offer(@NotNull RecordEncoder encoder) {
+        final long tail = claimTail();
+        if (tail < 0) return false;
+        try {
+            encoder.encode(buffer, recordOffset(tail));
+        } catch (Throwable e) {
+            abortTail(tail);
+            throw e;
+        }
+        releaseTail(tail);
+        return true;
+    }
+
+    /**
+     * @return false if the queue is empty
+     */
+    public boolean poll(@NotNull RecordDecoder decoder) {
+        final long head = claimHead();
+        if (head < 0) return false;
+        try {
+            decoder.decode(buffer, recordOffset(head));
+        } finally {
+            releaseHead(head);
+        }
+        return true;
+    }
+
+    @Override
+    protected final long getTail() {
+        return (long) LONG.getVolatile(buffer, TAIL_OFFSET);
+    }
+
+    @Override
+    protected final long getHead() {
+        return (long) LONG.getVolatile(buffer, HEAD_OFFSET);
+    }
+
+    protected final void setTail(long tail) {
+        LONG.setVolatile(buffer, TAIL_OFFSET, tail);
+    }
+
+    @Override
+    protected final boolean casTail(long expect, long update) {
+        return LONG.compareAndSet(buffer, TAIL_OFFSET, expect, update);
+    }
+
+    @Override
+    protected final boolean casHead(long expect, long update) {
+        return LONG.compareAndSet(buffer, HEAD_OFFSET, expect, update);
+    }
+
+    @Override
+    protected final long getLevel(long counter) {
+        return (long) LONG.getVolatile(buffer, cellOffset(counter));
+    }
+
+    @Override
+    protected final void setLevel(long counter, long level) {
+        LONG.setVolatile(buffer, cellOffset(counter), level);
+    }
+
+    @Override
+    protected final boolean casLevel(long counter, long expect, long update) {
+        return LONG.compareAndSet(buffer, cellOffset(counter), expect, update);
+    }
+
+    protected final int cellOffset(long counter) {
+        return HEADER_SIZE + (int) (counter % capacity()) * cellSize;
+    }
+
+    protected final int recordOffset(long counter) {
+        return cellOffset(counter) + LEVEL_SIZE;
+    }
+
+    public final int recordSize() {
+        return recordSize;
+    }
+
+    public int size() {
+        final long head = getHead();
+        final long tail = getTail();
+        return (int) Math.min(tail - head, capacity());
+    }
+
+    public boolean isEmpty() {
+        return getHead() >= getTail();
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return "h: " + getHead() + ", t: " + getTail() + ", c:" + capacity() + ", r:" + recordSize;
+    }
+}
@@ -0,0 +1,93 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * A counter which value occupies its own cache line.
+ * <p/>
+ * The head and the tail counters are changed by different threads, so they must not share a cache line
+ * with each other and with rarely changed fields. The value is surrounded by 7 longs from both sides
+ * through the class hierarchy, because the JVM keeps superclass fields before subclass ones.
+ *
+ * @author Bulgakov Alex
+ */
+public final class PaddedSequence extends SequenceRightPadding {
+
+    private static final VarHandle VALUE;
+
+    static {
+        try {
+            VALUE = MethodHandles.lookup().findVarHandle(SequenceValue.class, "value", long.class);
+        } catch (NoSuchFieldException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    public PaddedSequence() {
+    }
+
+    public PaddedSequence(long initialValue) {
+        value = initialValue;
+    }
+
+    public long get() {
+        return value;
+    }
+
+    public void set(long newValue) {
+        value = newValue;
+    }
+
+    /**
+     * a release store, the value is visible to an acquiring reader with all preceding writes
+     */
+    public void lazySet(long newValue) {
+        VALUE.setRelease(this, newValue);
+    }
+
+    /**
+     * @return the value without ordering of the surrounding accesses, is enough for estimates
+     */
+    public long getOpaque() {
+        return (long) VALUE.getOpaque(this);
+    }
+
+    /**
+     * a plain load for a value with a single reader and writer thread
+     */
+    public long getPlain() {
+        return (long) VALUE.get(this);
+    }
+
+    /**
+     * a plain store for a value with a single reader and writer thread
+     */
+    public void setPlain(long newValue) {
+        VALUE.set(this, newValue);
+    }
+
+    public boolean compareAndSet(long expect, long update) {
+        return VALUE.compareAndSet(this, expect, update);
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        return Long.toString(value);
+    }
+}
+
+abstract class SequenceLeftPadding {
+    protected long p01, p02, p03, p04, p05, p06, p07;
+}
+
+abstract class SequenceValue extends SequenceLeftPadding {
+    protected volatile long value;
+}
+
+abstract class SequenceRightPadding extends SequenceValue {
+    protected long p09, p10, p11, p12, p13, p14, p15;
+}
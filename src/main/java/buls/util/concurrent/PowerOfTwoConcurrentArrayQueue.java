@@ -0,0 +1,60 @@
+package buls.util.concurrent;
+
+/**
+ * {@link ConcurrentArrayQueue} which capacity is rounded up to a power of two.
+ * <p/>
+ * Cell indexes and levels are computed by a mask and a shift instead of the integer division,
+ * the head and the tail counters are reset to 0 after {@link Integer#MAX_VALUE}
+ * so the counter's increment is a masked addition.
+ *
+ * @author Bulgakov Alex
+ */
+public class PowerOfTwoConcurrentArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    public static final int MAX_CAPACITY = 1 << 30;
+
+    private final int mask;
+    private final int shift;
+
+    public PowerOfTwoConcurrentArrayQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    public PowerOfTwoConcurrentArrayQueue(int capacity, boolean checkInterruption) {
+        this(capacity, checkInterruption, 1);
+    }
+
+    public PowerOfTwoConcurrentArrayQueue(int capacity, boolean checkInterruption, int levelStride) {
+        super(roundToPowerOfTwo(capacity), checkInterruption, capacity == 0 ? 0 : MAX_VALUE, levelStride);
+        this.mask = capacity() - 1;
+        this.shift = Integer.numberOfTrailingZeros(capacity());
+    }
+
+    /**
+     * @return the least power of two that is greater than or equal to the capacity
+     */
+    public static int roundToPowerOfTwo(int capacity) {
+        if (capacity < 0 || capacity > MAX_CAPACITY) throw new IllegalArgumentException("capacity " + capacity);
+        return capacity <= 1 ? capacity : Integer.highestOneBit(capacity - 1) << 1;
+    }
+
+    @Override
+    protected final int computeIndex(long counter) {
+        return (int) (counter & mask);
+    }
+
+    @Override
+    protected final long computeLevel(long counter) {
+        return counter >>> shift;
+    }
+
+    @Override
+    protected final long _increment(long counter) {
+        return (counter + 1) & MAX_VALUE;
+    }
+
+    @Override
+    protected final long nextLevelCounter(long counter) {
+        return (counter & ~(long) mask) + capacity();
+    }
+}
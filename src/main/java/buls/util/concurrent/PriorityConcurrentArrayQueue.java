@@ -0,0 +1,193 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.ToIntFunction;
+
+/**
+ * A bounded thread-safe {@linkplain java.util.Queue queue} with a fixed amount of priorities,
+ * 0 is the highest one. Each priority has its own {@link ConcurrentArrayQueue} lane.
+ * <p/>
+ * A bitmap keeps a bit per a lane which can be non-empty, so a poll finds the highest candidate lane by
+ * {@link Long#numberOfTrailingZeros(long)} without a lock and without visiting the empty lanes.
+ * A producer sets its lane's bit after the offer if the bit is not set. A consumer which finds the lane empty
+ * clears the bit and checks the lane again, it restores the bit if an element has come meanwhile,
+ * so a bit can be set for an empty lane but is never clear for a lane with an element which was offered
+ * before the poll started.
+ * <p/>
+ * The order is FIFO within a priority. A poll returns an element of the highest priority seen by it,
+ * an element of a higher priority offered during the poll can be polled after it.
+ *
+ * @author Bulgakov Alex
+ */
+public class PriorityConcurrentArrayQueue<E> extends AbstractQueue<E> {
+
+    public static final int MAX_PRIORITIES = Long.SIZE;
+
+    @NotNull
+    private final ConcurrentArrayQueue<E>[] lanes;
+    @Nullable
+    private final ToIntFunction<? super E> priority;
+    private final PaddedSequence nonEmpty = new PaddedSequence();
+
+    /**
+     * {@link #offer(Object)} uses the lowest priority
+     */
+    public PriorityConcurrentArrayQueue(int priorities, int laneCapacity) {
+        this(priorities, laneCapacity, null);
+    }
+
+    /**
+     * @param laneCapacity capacity of every priority
+     * @param priority     priority of an element for {@link #offer(Object)}, from 0 (the highest) to priorities - 1
+     */
+    public PriorityConcurrentArrayQueue(int priorities, int laneCapacity, @Nullable ToIntFunction<? super E> priority) {
+        if (priorities <= 0 || priorities > MAX_PRIORITIES) throw new IllegalArgumentException("priorities " + priorities);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final ConcurrentArrayQueue<E>[] lanes = new ConcurrentArrayQueue[priorities];
+        for (int i = 0; i < priorities; i++) lanes[i] = new ConcurrentArrayQueue<>(laneCapacity);
+        this.lanes = lanes;
+        this.priority = priority;
+    }
+
+    /**
+     * @return false if the lane of the element's priority is full
+     */
+    @Override
+    public boolean offer(@Nullable E e) {
+        if (e == null) throw AbstractArrayQueue.nullElement();
+        return offer(e, priority != null ? priority.applyAsInt(e) : lanes.length - 1);
+    }
+
+    /**
+     * @param priority from 0 (the highest) to {@link #priorities()} - 1
+     * @return false if the lane of the priority is full
+     */
+    public boolean offer(@Nullable E e, int priority) {
+        if (e == null) throw AbstractArrayQueue.nullElement();
+        if (priority < 0 || priority >= lanes.length) throw new IllegalArgumentException("priority " + priority);
+        if (!lanes[priority].offer(e)) return false;
+        markNonEmpty(1L << priority);
+        return true;
+    }
+
+    /**
+     * @return an element of the highest non-empty priority or null
+     */
+    @Nullable
+    @Override
+    public E poll() {
+        long bits = nonEmpty.get();
+        while (bits != 0) {
+            final int priority = Long.numberOfTrailingZeros(bits);
+            final ConcurrentArrayQueue<E> lane = lanes[priority];
+            final E e = lane.poll();
+            if (e != null) return e;
+
+            final long bit = 1L << priority;
+            if (lane.isEmpty()) {
+                clearNonEmpty(bit);
+                //a producer has seen the bit set before it is cleared
+                if (!lane.isEmpty()) markNonEmpty(bit);
+            }
+            bits &= ~bit;
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public E peek() {
+        long bits = nonEmpty.get();
+        while (bits != 0) {
+            final int priority = Long.numberOfTrailingZeros(bits);
+            final E e = lanes[priority].peek();
+            if (e != null) return e;
+            bits &= bits - 1;
+        }
+        return null;
+    }
+
+    private void markNonEmpty(long bit) {
+        long bits;
+        while (((bits = nonEmpty.get()) & bit) == 0) {
+            if (nonEmpty.compareAndSet(bits, bits | bit)) return;
+        }
+    }
+
+    private void clearNonEmpty(long bit) {
+        long bits;
+        while (((bits = nonEmpty.get()) & bit) != 0) {
+            if (nonEmpty.compareAndSet(bits, bits & ~bit)) return;
+        }
+    }
+
+    public final int priorities() {
+        return lanes.length;
+    }
+
+    public final int laneCapacity() {
+        return lanes[0].capacity();
+    }
+
+    /**
+     * @return amount of the elements of the priority, the value is not exact under concurrent changes
+     */
+    public int size(int priority) {
+        return lanes[priority].size();
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (ConcurrentArrayQueue<E> lane : lanes) size += lane.size();
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        long bits = nonEmpty.get();
+        while (bits != 0) {
+            if (!lanes[Long.numberOfTrailingZeros(bits)].isEmpty()) return false;
+            bits &= bits - 1;
+        }
+        return true;
+    }
+
+    /**
+     * @return weakly consistent iterator from the highest priority to the lowest one, it does not support removing
+     */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index;
+            @NotNull
+            private Iterator<E> current = lanes[0].iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && index + 1 < lanes.length) current = lanes[++index].iterator();
+                return current.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder("non-empty: ").append(Long.toBinaryString(nonEmpty.get()));
+        for (int i = 0; i < lanes.length; i++) b.append("\npriority ").append(i).append(": ").append(lanes[i].size());
+        return b.toString();
+    }
+}
@@ -0,0 +1,22 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Reads a fixed-size record in place, the counterpart of {@link RecordEncoder}
+ *
+ * @author Bulgakov Alex
+ * @see OffHeapArrayQueue#poll(RecordDecoder)
+ */
+public interface RecordDecoder {
+
+    /**
+     * reads the record by absolute gets, the buffer's position and limit must not be changed.
+     * The record's bytes are reused after the method returns
+     *
+     * @param offset first byte of the record
+     */
+    void decode(@NotNull ByteBuffer buffer, int offset);
+}
@@ -0,0 +1,22 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Writes a fixed-size record in place. An implementation is usually a reusable flyweight
+ * which fields are set before an offer, so the offer does not allocate.
+ *
+ * @author Bulgakov Alex
+ * @see OffHeapArrayQueue#offer(RecordEncoder)
+ */
+public interface RecordEncoder {
+
+    /**
+     * writes the record by absolute puts, the buffer's position and limit must not be changed
+     *
+     * @param offset first byte of the record
+     */
+    void encode(@NotNull ByteBuffer buffer, int offset);
+}
@@ -0,0 +1,40 @@
+package buls.util.concurrent;
+
+/**
+ * {@link ConcurrentArrayQueue} which maps consecutive counters to distant cells.
+ * <p/>
+ * The cells are considered as a matrix of {@link #SCRAMBLE_STRIDE} columns that is filled by columns,
+ * so neighbouring counters fall into cells placed {@link #SCRAMBLE_STRIDE} apart and
+ * concurrent producers and consumers touch different cache lines of the levels and the elements
+ * without extra memory. Cells out of the last full row are mapped as is.
+ * The order of the queue is not changed, only the cells placement.
+ *
+ * @author Bulgakov Alex
+ */
+public class ScrambledConcurrentArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    /**
+     * 16 levels or 16 compressed references occupy 128 and 64 bytes
+     */
+    public static final int SCRAMBLE_STRIDE = 16;
+
+    private final int rows;
+    private final int scrambled;
+
+    public ScrambledConcurrentArrayQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    public ScrambledConcurrentArrayQueue(int capacity, boolean checkInterruption) {
+        super(capacity, checkInterruption);
+        rows = capacity / SCRAMBLE_STRIDE;
+        scrambled = rows * SCRAMBLE_STRIDE;
+    }
+
+    @Override
+    protected final int computeIndex(long counter) {
+        final int index = super.computeIndex(counter);
+        if (index >= scrambled) return index;
+        return (index % rows) * SCRAMBLE_STRIDE + index / rows;
+    }
+}
@@ -0,0 +1,230 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A {@link MappedArrayQueue} for several processes which map the same file at the same time.
+ * <p/>
+ * The counters and the levels are changed by atomic operations on the mapping, so producers and consumers
+ * of different processes do not make system calls. An existing file is attached without recovery.
+ * <p/>
+ * A producer encodes its record into a buffer of its thread before it claims a position, then it marks the claimed
+ * cell as putting, copies the record to the cell and publishes it, so a slow encoder holds no position.
+ * A process can be killed while it holds a claimed cell, so a consumer which waits for a position longer than
+ * the lease drops the position: it claims the head and frees the cell. A live producer which was late to publish
+ * sees that its position is dropped and copies the record to a new position.
+ * <p/>
+ * A consumer copies the record out of the claimed cell, frees the cell and decodes the copy.
+ * A consumer process can be killed between the claim and the free, so a producer or a consumer of the next round
+ * which waits for the cell longer than the lease frees it. The record of the killed consumer is considered
+ * as retrieved. A live consumer which was late to free the cell sees that it is freed and polls again,
+ * its copy can be torn.
+ * <p/>
+ * The records of killed producers are lost. A producer or a consumer stalled longer than the lease in the middle
+ * of its copy, which runs no user code, changes or reads the cell of the next round, so the lease must be much
+ * longer than the pauses of the processes.
+ *
+ * @author Bulgakov Alex
+ */
+public class SharedArrayQueue extends MappedArrayQueue {
+
+    public static final long DEFAULT_LEASE_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long leaseNanos;
+    @NotNull
+    private final ThreadLocal<ByteBuffer> offered;
+    @NotNull
+    private final ThreadLocal<ByteBuffer> polled;
+
+    public SharedArrayQueue(@NotNull File file, int capacity, int recordSize) throws IOException {
+        this(file, capacity, recordSize, DEFAULT_LEASE_NANOS);
+    }
+
+    /**
+     * @param leaseNanos how long a consumer waits for a claimed position before it drops the position,
+     *                   how long a producer or a consumer waits for a cell held by a consumer of the previous round
+     */
+    public SharedArrayQueue(@NotNull File file, int capacity, int recordSize, long leaseNanos) throws IOException {
+        super(file, capacity, recordSize, false);
+        if (leaseNanos <= 0) throw new IllegalArgumentException("leaseNanos " + leaseNanos);
+        this.leaseNanos = leaseNanos;
+        this.offered = ThreadLocal.withInitial(() -> ByteBuffer.allocate(recordSize).order(ByteOrder.nativeOrder()));
+        this.polled = ThreadLocal.withInitial(() -> ByteBuffer.allocate(recordSize).order(ByteOrder.nativeOrder()));
+    }
+
+    /**
+     * @return the level of a cell being written in the round, it differs from the free and the filled levels
+     */
+    protected static long putting(long level) {
+        return Long.MIN_VALUE + level;
+    }
+
+    /**
+     * the record is encoded out of the mapping, the encoder never writes to a cell which can be dropped
+     */
+    @Override
+    public boolean offer(@NotNull RecordEncoder encoder) {
+        final ByteBuffer record = offered.get();
+        encoder.encode(record, 0);
+        while (true) {
+            final long tail = claimTail();
+            if (tail < 0) return false;
+            copy(record, 0, buffer, recordOffset(tail));
+            if (publishTail(tail)) return true;
+        }
+    }
+
+    /**
+     * the record is decoded out of the mapping, the decoder never reads a cell which can be freed
+     */
+    @Override
+    public boolean poll(@NotNull RecordDecoder decoder) {
+        final ByteBuffer record = polled.get();
+        while (true) {
+            final long head = claimHead();
+            if (head < 0) return false;
+            copy(buffer, recordOffset(head), record, 0);
+            if (freeHead(head)) {
+                decoder.decode(record, 0);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * copies by absolute gets and puts, both buffers have the native order
+     */
+    private void copy(@NotNull ByteBuffer from, int fromOffset, @NotNull ByteBuffer to, int toOffset) {
+        final int recordSize = recordSize();
+        int i = 0;
+        for (; i + 8 <= recordSize; i += 8) to.putLong(toOffset + i, from.getLong(fromOffset + i));
+        for (; i < recordSize; i++) to.put(toOffset + i, from.get(fromOffset + i));
+    }
+
+    /**
+     * @return the claimed tail counter, its cell is marked as putting, -1 if the queue is full
+     */
+    @Override
+    protected long claimTail() {
+        final int capacity = capacity();
+        while (true) {
+            final long tail = getTail();
+            if (tail - getHead() >= capacity) return -1;
+            if (casTail(tail, tail + 1) && markPutting(tail)) return tail;
+        }
+    }
+
+    /**
+     * @return false if the position is dropped by a consumer
+     */
+    private boolean markPutting(long tail) {
+        final long level = computeLevel(tail);
+        boolean stalled = false;
+        long stalledSince = 0;
+        //a consumer of the previous round can still be reading the cell's record
+        while (!casLevel(tail, -level, putting(level))) {
+            if (getHead() > tail) return false;
+            if (level > 0 && getLevel(tail) == level) {
+                final long now = System.nanoTime();
+                if (!stalled) {
+                    stalled = true;
+                    stalledSince = now;
+                } else if (now - stalledSince >= leaseNanos) {
+                    reclaim(tail, level);
+                }
+            }
+            Thread.yield();
+        }
+        return true;
+    }
+
+    /**
+     * frees the cell which is filled in the previous round and is claimed by a killed consumer
+     */
+    private void reclaim(long counter, long level) {
+        casLevel(counter, level, -level);
+    }
+
+    /**
+     * @return false if the cell is freed by a producer or a consumer of the next round
+     */
+    private boolean freeHead(long head) {
+        final long level = computeLevel(head);
+        return casLevel(head, level + 1, -(level + 1));
+    }
+
+    @Override
+    protected void releaseHead(long head) {
+        freeHead(head);
+    }
+
+    /**
+     * @return false if the position is dropped by a consumer, the record is not published
+     */
+    protected final boolean publishTail(long tail) {
+        final long level = computeLevel(tail);
+        return casLevel(tail, putting(level), level + 1);
+    }
+
+    @Override
+    protected void releaseTail(long tail) {
+        publishTail(tail);
+    }
+
+    @Override
+    protected long claimHead() {
+        long stalled = -1;
+        long stalledCell = 0;
+        long stalledSince = 0;
+        while (true) {
+            final long head = getHead();
+            if (head >= getTail()) return -1;
+
+            final long level = computeLevel(head);
+            final long cell = getLevel(head);
+            if (cell == level + 1) {
+                if (casHead(head, head + 1)) return head;
+            } else if (cell == aborted(level)) {
+                if (casHead(head, head + 1)) releaseHead(head);
+            } else if (stalled != head || stalledCell != cell) {
+                //the lease of the producer or of a consumer of the previous round which holds the cell starts
+                stalled = head;
+                stalledCell = cell;
+                stalledSince = System.nanoTime();
+                Thread.yield();
+            } else if (System.nanoTime() - stalledSince < leaseNanos) {
+                Thread.yield();
+            } else if (cell != -level && cell != putting(level)) {
+                //a consumer of the previous round was killed before it freed the cell
+                if (level > 0 && cell == level) reclaim(head, level);
+                else Thread.yield();
+            } else if (casHead(head, head + 1) && !drop(head, level)) {
+                //the record is published after the head is claimed
+                return head;
+            }
+        }
+    }
+
+    /**
+     * frees the claimed cell which is not published
+     *
+     * @return false if the record is published
+     */
+    private boolean drop(long head, long level) {
+        while (true) {
+            final long cell = getLevel(head);
+            if (cell == level + 1) return false;
+            if (casLevel(head, cell, -(level + 1))) return true;
+        }
+    }
+
+    public final long leaseNanos() {
+        return leaseNanos;
+    }
+}
@@ -0,0 +1,53 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * {@link ConcurrentArrayQueue} for exactly one producer thread and many consumer threads.
+ * <p/>
+ * Consumers follow the usual cells protocol. The producer is the only writer of the tail counter,
+ * so it fills the tail cell without locking it and moves the tail by an ordered write instead of a CAS.
+ * Consumers never try a cell at or after the tail, so the cell is released before the tail is moved.
+ * The producer waits for a consumer which still releases the tail cell, the offer fails only if the cell
+ * keeps an element of the previous round.
+ * <p/>
+ * Calling {@link #offer(Object)} or {@link #offerBatch(Object[], int, int)} from several threads breaks the queue.
+ *
+ * @author Bulgakov Alex
+ */
+public class SpmcArrayQueue<E> extends ConcurrentArrayQueue<E> {
+
+    public SpmcArrayQueue(int capacity) {
+        super(capacity);
+    }
+
+    public SpmcArrayQueue(int capacity, boolean checkInterruption) {
+        super(capacity, checkInterruption);
+    }
+
+    @Override
+    public boolean offer(@Nullable E e) {
+        if (e == null) throw nullElement();
+        if (capacity() == 0) return false;
+
+        final long tail = getTail();
+        final int index = computeIndex(tail);
+        final long level = getLevelBeforeSet(tail);
+        //level2 is needed for case when tail overflowed and reset to 0
+        final long level2 = (level == 0) ? getLevelBeforeSet(max_sequence_value() + 1L) : level;
+        long current;
+        //a consumer of the previous round has moved the head and is releasing the cell, the queue is not full
+        while ((current = _level(index)) == POOLING) Thread.yield();
+        //the cell still keeps an element of the previous round
+        if (current != level && current != level2) {
+            failSet();
+            return false;
+        }
+
+        _insert(e, index);
+        _setLevel(index, getLevelAfterSet(tail));
+        tailSequence.lazySet(_increment(tail));
+        successSet();
+        return true;
+    }
+}
@@ -0,0 +1,120 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A bounded queue for exactly one producer thread and exactly one consumer thread.
+ * <p/>
+ * Each counter has a single writer, so it is published by an ordered write instead of a CAS,
+ * and no cell needs a level. The producer caches the last read head and the consumer caches the last read tail,
+ * the opposite counter is re-read only when the cached value says the queue is full or empty.
+ * The counters are never reset, a long does not overflow in practice.
+ * <p/>
+ * Calling {@link #offer(Object)} from several threads, or {@link #poll()} from several threads, breaks the queue.
+ *
+ * @author Bulgakov Alex
+ */
+public class SpscArrayQueue<E> extends AbstractArrayQueue<E> {
+
+    protected final PaddedSequence tailSequence = new PaddedSequence();
+    protected final PaddedSequence headSequence = new PaddedSequence();
+
+    /**
+     * the head seen by the producer, it is read and written by the producer only,
+     * it is padded as the counters so the consumer does not invalidate it
+     */
+    private final PaddedSequence headCache = new PaddedSequence();
+    /**
+     * the tail seen by the consumer, it is read and written by the consumer only
+     */
+    private final PaddedSequence tailCache = new PaddedSequence();
+
+    public SpscArrayQueue(int capacity) {
+        super(capacity);
+    }
+
+    @Override
+    public boolean offer(@Nullable E e) {
+        if (e == null) throw nullElement();
+
+        final int capacity = capacity();
+        final long tail = tailSequence.getPlain();
+        if (tail - headCache.getPlain() >= capacity) {
+            final long head = headSequence.get();
+            headCache.setPlain(head);
+            if (tail - head >= capacity) return false;
+        }
+        _insert(e, computeIndex(tail));
+        //publishes the element
+        tailSequence.lazySet(tail + 1);
+        return true;
+    }
+
+    @Nullable
+    @Override
+    public E poll() {
+        final long head = headSequence.getPlain();
+        if (head >= tailCache.getPlain()) {
+            final long tail = tailSequence.get();
+            tailCache.setPlain(tail);
+            if (head >= tail) return null;
+        }
+        final E e = _retrieve(computeIndex(head));
+        //releases the cell for the producer
+        headSequence.lazySet(head + 1);
+        return e;
+    }
+
+    /**
+     * is called by the consumer thread, another thread can get an element which is being polled
+     */
+    @Nullable
+    @Override
+    public E peek() {
+        final long head = headSequence.get();
+        return head < tailSequence.get() ? _get(computeIndex(head)) : null;
+    }
+
+    /**
+     * @return iterator over a snapshot of the cells between the head and the tail,
+     * it is not consistent under concurrent changes
+     */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        final long head = headSequence.get();
+        final long tail = Math.min(tailSequence.get(), head + capacity());
+        final List<E> elements = new ArrayList<>((int) Math.max(0, tail - head));
+        for (long counter = head; counter < tail; counter++) {
+            final E e = _get(computeIndex(counter));
+            if (e != null) elements.add(e);
+        }
+        return Collections.unmodifiableList(elements).iterator();
+    }
+
+    @Override
+    public int size() {
+        long head = headSequence.get();
+        long tail = tailSequence.get();
+        //the tail could be moved more than a capacity forward after the head reading
+        return (int) Math.min(tail - head, capacity());
+    }
+
+    protected int computeIndex(long counter) {
+        return (int) (counter % capacity());
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        final long h = headSequence.get();
+        final long t = tailSequence.get();
+        return "h: " + h + ", t: " + t + ", c:" + capacity() + "\n" + super.toString();
+    }
+}
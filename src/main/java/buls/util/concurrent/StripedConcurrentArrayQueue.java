@@ -0,0 +1,167 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.AbstractQueue;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A bounded thread-safe {@linkplain java.util.Queue queue} of several {@link ConcurrentArrayQueue} lanes.
+ * <p/>
+ * A thread's home lane is chosen by a hash of the thread's id, so threads of different lanes do not contend
+ * on the same head and tail counters. A producer offers to its home lane and to the next lanes if the home one
+ * is full, a consumer polls its home lane and steals from the next lanes if the home one is empty.
+ * The offer fails only if all lanes are full, the poll returns null only if all lanes are empty.
+ * <p/>
+ * The order is FIFO within a lane only. The elements of one producer are polled in the offer order while
+ * the producer's home lane has room, the elements of different lanes are polled in any order.
+ * {@link #size()}, {@link #isEmpty()} and {@link #iterator()} visit the lanes one by one,
+ * they are not consistent under concurrent changes.
+ *
+ * @author Bulgakov Alex
+ */
+public class StripedConcurrentArrayQueue<E> extends AbstractQueue<E> {
+
+    public static final int DEFAULT_LANES = Runtime.getRuntime().availableProcessors();
+
+    @NotNull
+    private final ConcurrentArrayQueue<E>[] lanes;
+
+    public StripedConcurrentArrayQueue(int capacity) {
+        this(capacity, DEFAULT_LANES);
+    }
+
+    /**
+     * @param capacity total capacity, it is divided between the lanes and is rounded up to a multiple of the lanes
+     */
+    public StripedConcurrentArrayQueue(int capacity, int lanes) {
+        this(capacity, lanes, false);
+    }
+
+    public StripedConcurrentArrayQueue(int capacity, int lanes, boolean checkInterruption) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity " + capacity);
+        if (lanes <= 0) throw new IllegalArgumentException("lanes " + lanes);
+        final int laneCapacity = (int) ((capacity + (long) lanes - 1) / lanes);
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        final ConcurrentArrayQueue<E>[] array = new ConcurrentArrayQueue[lanes];
+        for (int i = 0; i < lanes; i++) array[i] = new ConcurrentArrayQueue<>(laneCapacity, checkInterruption);
+        this.lanes = array;
+    }
+
+    /**
+     * @return false if all lanes are full
+     */
+    @Override
+    public boolean offer(@Nullable E e) {
+        if (e == null) throw AbstractArrayQueue.nullElement();
+        final ConcurrentArrayQueue<E>[] lanes = this.lanes;
+        int index = homeLane();
+        for (int i = 0; i < lanes.length; i++) {
+            if (lanes[index].offer(e)) return true;
+            if (++index == lanes.length) index = 0;
+        }
+        return false;
+    }
+
+    /**
+     * @return null if all lanes are empty
+     */
+    @Nullable
+    @Override
+    public E poll() {
+        final ConcurrentArrayQueue<E>[] lanes = this.lanes;
+        int index = homeLane();
+        for (int i = 0; i < lanes.length; i++) {
+            final E e = lanes[index].poll();
+            if (e != null) return e;
+            if (++index == lanes.length) index = 0;
+        }
+        return null;
+    }
+
+    @Nullable
+    @Override
+    public E peek() {
+        final ConcurrentArrayQueue<E>[] lanes = this.lanes;
+        int index = homeLane();
+        for (int i = 0; i < lanes.length; i++) {
+            final E e = lanes[index].peek();
+            if (e != null) return e;
+            if (++index == lanes.length) index = 0;
+        }
+        return null;
+    }
+
+    /**
+     * @return lane of the current thread
+     */
+    protected int homeLane() {
+        final long id = Thread.currentThread().getId();
+        //spreads sequential ids
+        final int hash = (int) (id * 0x9E3779B97F4A7C15L >>> 32);
+        return (hash & Integer.MAX_VALUE) % lanes.length;
+    }
+
+    public final int lanes() {
+        return lanes.length;
+    }
+
+    @NotNull
+    protected final ConcurrentArrayQueue<E> lane(int index) {
+        return lanes[index];
+    }
+
+    public final int capacity() {
+        return lanes.length * lanes[0].capacity();
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (ConcurrentArrayQueue<E> lane : lanes) size += lane.size();
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (ConcurrentArrayQueue<E> lane : lanes) {
+            if (!lane.isEmpty()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return weakly consistent iterator over the lanes' iterators, it does not support removing
+     */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private int index;
+            @NotNull
+            private Iterator<E> current = lanes[0].iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && index + 1 < lanes.length) current = lanes[++index].iterator();
+                return current.hasNext();
+            }
+
+            @Override
+            public E next() {
+                if (!hasNext()) throw new NoSuchElementException();
+                return current.next();
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public String toString() {
+        final StringBuilder b = new StringBuilder("c:").append(capacity());
+        for (int i = 0; i < lanes.length; i++) b.append("\nlane ").append(i).append(": ").append(lanes[i].size());
+        return b.toString();
+    }
+}
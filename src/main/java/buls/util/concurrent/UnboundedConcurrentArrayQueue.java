@@ -0,0 +1,351 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.invoke.VarHandle;
+import java.util.AbstractQueue;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * An unbounded thread-safe {@linkplain java.util.Queue queue} built from linked array chunks.
+ * <p/>
+ * A chunk is filled once from its beginning to its end and then drained once. Its cells have the levels
+ * of {@link AbstractCellsQueue}: -round while a cell waits for an element, round + 1 while it keeps one.
+ * A producer locks a cell by a CAS on the cell's level and then moves the chunk's tail counter, a consumer does
+ * the same with the head counter, so a stalled thread does not hold a counter position.
+ * <p/>
+ * A new chunk is linked when the tail chunk is exhausted. A drained chunk is unlinked and kept in a small pool,
+ * its next use continues the counters and the levels with the next round, so a late consumer of the previous use
+ * and a producer of the next one are separated by the cell's level. Chunks are linked and unlinked under a lock,
+ * it happens once per a chunk capacity of elements. The memory is proportional to the occupancy.
+ *
+ * @author Bulgakov Alex
+ */
+public class UnboundedConcurrentArrayQueue<E> extends AbstractQueue<E> {
+
+    public static final int DEFAULT_CHUNK_CAPACITY = 1024;
+    public static final int DEFAULT_POOL_SIZE = 2;
+
+    private final int chunkCapacity;
+    private final int poolSize;
+    private final ArrayDeque<Chunk<E>> pool;
+
+    private volatile Chunk<E> headChunk;
+    private volatile Chunk<E> tailChunk;
+
+    public UnboundedConcurrentArrayQueue() {
+        this(DEFAULT_CHUNK_CAPACITY);
+    }
+
+    public UnboundedConcurrentArrayQueue(int chunkCapacity) {
+        this(chunkCapacity, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param poolSize how many drained chunks are kept for the next use
+     */
+    public UnboundedConcurrentArrayQueue(int chunkCapacity, int poolSize) {
+        this(poolSize, new Chunk<E>(checkChunkCapacity(chunkCapacity)));
+    }
+
+    protected UnboundedConcurrentArrayQueue(int poolSize, @NotNull Chunk<E> firstChunk) {
+        if (poolSize < 0) throw new IllegalArgumentException("poolSize " + poolSize);
+        this.chunkCapacity = firstChunk.capacity();
+        this.poolSize = poolSize;
+        this.pool = new ArrayDeque<>(poolSize);
+        this.headChunk = this.tailChunk = firstChunk;
+    }
+
+    private static int checkChunkCapacity(int chunkCapacity) {
+        if (chunkCapacity <= 0) throw new IllegalArgumentException("chunkCapacity " + chunkCapacity);
+        return chunkCapacity;
+    }
+
+    /**
+     * @return true, unless a subclass limits the chunks
+     */
+    @Override
+    public boolean offer(@Nullable E e) {
+        if (e == null) throw new IllegalArgumentException("element cannot be null");
+        while (true) {
+            final Chunk<E> chunk = tailChunk;
+            final long round = chunk.round;
+            if (chunk != tailChunk) continue;
+
+            if (chunk.offer(e, round)) return true;
+            else if (!appendChunk(chunk, round)) return false;
+        }
+    }
+
+    @Nullable
+    @Override
+    public E poll() {
+        while (true) {
+            final Chunk<E> chunk = headChunk;
+            final long round = chunk.round;
+            if (chunk != headChunk) continue;
+
+            final E e = chunk.poll(round);
+            if (e != null) return e;
+            if (!chunk.isDrained(round)) {
+                if (!chunk.isExhausted(round)) return null;
+                //the last cells are locked by other consumers, they move the head to the chunk's end
+                Thread.yield();
+                continue;
+            }
+            if (chunk.next != null) removeChunk(chunk, round);
+            //the producers have not linked the next chunk yet
+            else if (chunk == headChunk) return null;
+        }
+    }
+
+    /**
+     * @return the head element or null, the element can be polled by another thread at the moment of the return
+     */
+    @Nullable
+    @Override
+    public E peek() {
+        for (Chunk<E> chunk = headChunk; chunk != null; chunk = chunk.next) {
+            final long round = chunk.round;
+            final E e = chunk.peek(round);
+            if (e != null) return e;
+            //the head cell is being set, or the chunk has been unlinked and reused meanwhile
+            if (!chunk.isDrained(round)) return null;
+        }
+        return null;
+    }
+
+    /**
+     * a producer can see the chunk exhausted in a round which has been drained since then,
+     * the chunk can be pooled and reused as the tail of a later round, so the round is checked under the lock
+     *
+     * @param round the round in which the chunk has been seen exhausted
+     * @return false if a chunk cannot be linked
+     */
+    synchronized boolean appendChunk(@NotNull Chunk<E> exhausted, long round) {
+        if (tailChunk != exhausted || exhausted.round != round || !exhausted.isExhausted(round)) return true;
+
+        final int capacity = nextChunkCapacity(exhausted);
+        if (capacity <= 0) return false;
+
+        Chunk<E> chunk = pooledChunk(capacity);
+        if (chunk == null) chunk = new Chunk<>(capacity);
+        else chunk.round++;
+
+        exhausted.next = chunk;
+        tailChunk = chunk;
+        return true;
+    }
+
+    @Nullable
+    private Chunk<E> pooledChunk(int capacity) {
+        for (Iterator<Chunk<E>> iterator = pool.iterator(); iterator.hasNext(); ) {
+            final Chunk<E> chunk = iterator.next();
+            if (chunk.capacity() == capacity) {
+                iterator.remove();
+                return chunk;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param round the round in which the chunk has been seen drained
+     */
+    synchronized void removeChunk(@NotNull Chunk<E> drained, long round) {
+        if (headChunk != drained || drained.round != round || !drained.isDrained(round)) return;
+
+        headChunk = drained.next;
+        drained.next = null;
+        if (pool.size() == poolSize) pool.poll();
+        if (poolSize > 0) pool.offer(drained);
+    }
+
+    /**
+     * is called under the chunks lock
+     *
+     * @return capacity of a chunk to be linked after the exhausted one, 0 if the queue cannot grow
+     */
+    protected int nextChunkCapacity(@NotNull Chunk<E> exhausted) {
+        return chunkCapacity;
+    }
+
+    public final int chunkCapacity() {
+        return chunkCapacity;
+    }
+
+    @NotNull
+    protected final Chunk<E> headChunk() {
+        return headChunk;
+    }
+
+    /**
+     * @return amount of the linked chunks
+     */
+    public int chunks() {
+        int chunks = 0;
+        for (Chunk<E> chunk = headChunk; chunk != null; chunk = chunk.next) chunks++;
+        return chunks;
+    }
+
+    /**
+     * @return amount of locked positions which are not retrieved yet, the value is not exact under concurrent changes
+     */
+    @Override
+    public int size() {
+        long size = 0;
+        for (Chunk<E> chunk = headChunk; chunk != null; chunk = chunk.next) {
+            size += chunk.size(chunk.round);
+        }
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return iterator over a snapshot of the elements, it is not consistent under concurrent changes
+     */
+    @NotNull
+    @Override
+    public Iterator<E> iterator() {
+        final List<E> elements = new ArrayList<>();
+        for (Chunk<E> chunk = headChunk; chunk != null; chunk = chunk.next) {
+            chunk.collect(elements);
+        }
+        return Collections.unmodifiableList(elements).iterator();
+    }
+
+    protected static class Chunk<E> extends AbstractCellsQueue {
+        @NotNull
+        private final Object[] elements;
+        @NotNull
+        private final AtomicLongArray levels;
+        private final PaddedSequence tailSequence = new PaddedSequence();
+        private final PaddedSequence headSequence = new PaddedSequence();
+
+        /**
+         * the use number of this chunk, is changed while the chunk is not linked
+         */
+        volatile long round;
+        volatile Chunk<E> next;
+
+        protected Chunk(int capacity) {
+            super(capacity);
+            elements = new Object[capacity];
+            levels = new AtomicLongArray(capacity);
+        }
+
+        @Override
+        protected final long getTail() {
+            return tailSequence.get();
+        }
+
+        @Override
+        protected final long getHead() {
+            return headSequence.get();
+        }
+
+        @Override
+        protected final boolean casTail(long expect, long update) {
+            return tailSequence.compareAndSet(expect, update);
+        }
+
+        @Override
+        protected final boolean casHead(long expect, long update) {
+            return headSequence.compareAndSet(expect, update);
+        }
+
+        @Override
+        protected final long getLevel(long counter) {
+            return levels.get(index(counter));
+        }
+
+        @Override
+        protected final void setLevel(long counter, long level) {
+            levels.set(index(counter), level);
+        }
+
+        @Override
+        protected final boolean casLevel(long counter, long expect, long update) {
+            return levels.compareAndSet(index(counter), expect, update);
+        }
+
+        private int index(long counter) {
+            return (int) (counter % capacity());
+        }
+
+        /**
+         * @return false if all positions of the round are locked
+         */
+        boolean offer(@NotNull E e, long round) {
+            final long tail = lockTail((round + 1) * capacity());
+            if (tail < 0) return false;
+            elements[index(tail)] = e;
+            releaseTail(tail);
+            return true;
+        }
+
+        /**
+         * @return null if the chunk is empty or drained
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        E poll(long round) {
+            final long head = lockHead((round + 1) * capacity());
+            if (head < 0) return null;
+            final int index = index(head);
+            final E e = (E) elements[index];
+            elements[index] = null;
+            releaseHead(head);
+            return e;
+        }
+
+        /**
+         * @return the element of the head cell or null if the cell is empty or locked
+         */
+        @Nullable
+        @SuppressWarnings("unchecked")
+        E peek(long round) {
+            final long head = headSequence.get();
+            if (head < round * capacity() || head >= (round + 1) * capacity() || head >= tailSequence.get()) {
+                return null;
+            }
+            if (getLevel(head) != round + 1) return null;
+            final E e = (E) elements[index(head)];
+            //the plain load of the element is not moved after the level's re-read
+            VarHandle.acquireFence();
+            return getLevel(head) == round + 1 ? e : null;
+        }
+
+        boolean isExhausted(long round) {
+            return tailSequence.get() >= (round + 1) * capacity();
+        }
+
+        boolean isDrained(long round) {
+            return headSequence.get() >= (round + 1) * capacity();
+        }
+
+        long size(long round) {
+            final long first = round * capacity();
+            final long head = Math.max(headSequence.get(), first);
+            final long tail = Math.min(tailSequence.get(), first + capacity());
+            return Math.max(tail - head, 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        void collect(@NotNull List<E> list) {
+            for (Object e : elements) {
+                if (e != null) list.add((E) e);
+            }
+        }
+    }
+}
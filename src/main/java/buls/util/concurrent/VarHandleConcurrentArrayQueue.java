@@ -0,0 +1,56 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * The {@link ConcurrentArrayQueue} protocol over a plain long array of levels accessed by a {@link VarHandle}.
+ * <p/>
+ * There is no {@link java.util.concurrent.atomic.AtomicLongArray} object between the queue and the levels,
+ * and each access uses the weakest mode the protocol permits:
+ * a level is read with acquire semantics, the element is read after it;
+ * a cell is locked by a volatile CAS, the competing threads must be ordered;
+ * a cell is released by its locking thread with a release store, the element's plain store or load
+ * is ordered before it and no other thread can change a locked level.
+ *
+ * @author Bulgakov Alex
+ */
+public class VarHandleConcurrentArrayQueue<E> extends AbstractLevelArrayQueue<E> {
+
+    private static final VarHandle LEVELS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    @NotNull
+    protected final long[] levels;
+
+    public VarHandleConcurrentArrayQueue(int capacity) {
+        this(capacity, false);
+    }
+
+    public VarHandleConcurrentArrayQueue(int capacity, boolean checkInterruption) {
+        super(capacity, checkInterruption);
+        levels = new long[capacity];
+    }
+
+    @Override
+    protected final long _level(int index) {
+        return (long) LEVELS.getAcquire(levels, index);
+    }
+
+    @Override
+    protected final boolean _levelCas(int index, long expect, long update) {
+        return LEVELS.compareAndSet(levels, index, expect, update);
+    }
+
+    @Override
+    protected final void _setLevel(int index, long level) {
+        LEVELS.setVolatile(levels, index, level);
+    }
+
+    @Override
+    protected final void _releaseLevel(int index, long lockLevel, long level) {
+        assert _level(index) == lockLevel : index + " " + lockLevel + " " + _level(index);
+        LEVELS.setRelease(levels, index, level);
+    }
+}
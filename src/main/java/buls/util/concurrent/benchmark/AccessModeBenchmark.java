@@ -0,0 +1,132 @@
+package buls.util.concurrent.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Access modes of a levels array: plain long[], {@link AtomicLongArray} and a long[] {@link VarHandle}.
+ * <p/>
+ * The cycle benchmarks lock and release a cell like a producer of the levels protocol does:
+ * the lock is a CAS, the release is a CAS, a volatile store or a release store.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class AccessModeBenchmark {
+
+    public static final int LENGTH = 1024;
+    private static final long LOCKED = Long.MAX_VALUE;
+    private static final VarHandle LEVELS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    public final long[] plain = new long[LENGTH];
+    public final AtomicLongArray atomic = new AtomicLongArray(LENGTH);
+    public final long[] varHandle = new long[LENGTH];
+    public int index;
+
+    private int next() {
+        return index = (index + 1) & (LENGTH - 1);
+    }
+
+    @Benchmark
+    public long plain_read() {
+        return plain[next()];
+    }
+
+    @Benchmark
+    public void plain_write() {
+        final int i = next();
+        plain[i] = i;
+    }
+
+    @Benchmark
+    public long atomic_get() {
+        return atomic.get(next());
+    }
+
+    @Benchmark
+    public void atomic_set() {
+        final int i = next();
+        atomic.set(i, i);
+    }
+
+    @Benchmark
+    public void atomic_lazySet() {
+        final int i = next();
+        atomic.lazySet(i, i);
+    }
+
+    @Benchmark
+    public long varHandle_getVolatile() {
+        return (long) LEVELS.getVolatile(varHandle, next());
+    }
+
+    @Benchmark
+    public long varHandle_getAcquire() {
+        return (long) LEVELS.getAcquire(varHandle, next());
+    }
+
+    @Benchmark
+    public long varHandle_getOpaque() {
+        return (long) LEVELS.getOpaque(varHandle, next());
+    }
+
+    @Benchmark
+    public void varHandle_setVolatile() {
+        final int i = next();
+        LEVELS.setVolatile(varHandle, i, (long) i);
+    }
+
+    @Benchmark
+    public void varHandle_setRelease() {
+        final int i = next();
+        LEVELS.setRelease(varHandle, i, (long) i);
+    }
+
+    @Benchmark
+    public boolean atomic_cycle_cas() {
+        final int i = next();
+        final long level = atomic.get(i);
+        return atomic.compareAndSet(i, level, LOCKED) && atomic.compareAndSet(i, LOCKED, level + 1);
+    }
+
+    @Benchmark
+    public boolean atomic_cycle_lazySet() {
+        final int i = next();
+        final long level = atomic.get(i);
+        if (!atomic.compareAndSet(i, level, LOCKED)) return false;
+        atomic.lazySet(i, level + 1);
+        return true;
+    }
+
+    @Benchmark
+    public boolean varHandle_cycle_cas() {
+        final int i = next();
+        final long level = (long) LEVELS.getAcquire(varHandle, i);
+        return LEVELS.compareAndSet(varHandle, i, level, LOCKED)
+                && LEVELS.compareAndSet(varHandle, i, LOCKED, level + 1);
+    }
+
+    @Benchmark
+    public boolean varHandle_cycle_setVolatile() {
+        final int i = next();
+        final long level = (long) LEVELS.getAcquire(varHandle, i);
+        if (!LEVELS.compareAndSet(varHandle, i, level, LOCKED)) return false;
+        LEVELS.setVolatile(varHandle, i, level + 1);
+        return true;
+    }
+
+    @Benchmark
+    public boolean varHandle_cycle_setRelease() {
+        final int i = next();
+        final long level = (long) LEVELS.getAcquire(varHandle, i);
+        if (!LEVELS.compareAndSet(varHandle, i, level, LOCKED)) return false;
+        LEVELS.setRelease(varHandle, i, level + 1);
+        return true;
+    }
+}
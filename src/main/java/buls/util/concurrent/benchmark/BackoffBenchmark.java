@@ -0,0 +1,79 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.BackoffStrategies;
+import buls.util.concurrent.ConcurrentArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producers and consumers of a {@link ConcurrentArrayQueue} with the {@link BackoffStrategies}, "none" is
+ * the immediate retry. The groups run 2, 4 and 6 threads, a half offers and a half polls.
+ * <p/>
+ * The throughput mode shows the operations per microsecond, the sample time mode shows the latency percentiles
+ * of the offers and the polls, a failed offer or poll is counted as an operation too.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class BackoffBenchmark {
+
+    public static final int CAPACITY = 1024;
+    public static final Integer ELEMENT = 1;
+
+    @State(Scope.Group)
+    public static class Queue {
+        @Param({"none", "exponential", "randomized", "contention"})
+        public String backoff;
+
+        public ConcurrentArrayQueue<Integer> queue;
+
+        @Setup
+        public void setup() {
+            queue = new ConcurrentArrayQueue<>(CAPACITY, false, 1, false, BackoffStrategies.byName(backoff));
+        }
+    }
+
+    @Benchmark
+    @Group("threads2")
+    @GroupThreads(1)
+    public boolean threads2_offer(Queue state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("threads2")
+    @GroupThreads(1)
+    public Integer threads2_poll(Queue state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("threads4")
+    @GroupThreads(2)
+    public boolean threads4_offer(Queue state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("threads4")
+    @GroupThreads(2)
+    public Integer threads4_poll(Queue state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("threads6")
+    @GroupThreads(3)
+    public boolean threads6_offer(Queue state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("threads6")
+    @GroupThreads(3)
+    public Integer threads6_poll(Queue state) {
+        return state.queue.poll();
+    }
+}
@@ -0,0 +1,13 @@
+package buls.util.concurrent.benchmark;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.BlockingQueue;
+
+public class BlockingABQ_Benchmark1 extends BlockingQueueBenchmark {
+    @Override @NotNull
+    protected BlockingQueue<Runnable> createQueue() {
+        return new ArrayBlockingQueue<>(capacity);
+    }
+}
@@ -0,0 +1,13 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.BlockingConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.BlockingQueue;
+
+public class BlockingCAQ_Benchmark1 extends BlockingQueueBenchmark {
+    @Override @NotNull
+    protected BlockingQueue<Runnable> createQueue() {
+        return new BlockingConcurrentArrayQueue<>(capacity);
+    }
+}
@@ -0,0 +1,30 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.benchmark.impl.AbstractBlockingQueueService;
+import buls.util.concurrent.benchmark.impl.AbstractServiceState;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Readers wait in {@link BlockingQueue#take()} and writers in {@link BlockingQueue#put(Object)}
+ */
+public abstract class BlockingQueueBenchmark extends BoundedQueueBenchmark {
+
+    @NotNull
+    @Override
+    protected abstract BlockingQueue<Runnable> createQueue();
+
+    @NotNull
+    @Override
+    protected AbstractServiceState createServiceFactory() {
+        return new BlockingServiceFactory(readers(), false);
+    }
+
+    public static class BlockingServiceFactory extends AbstractBlockingQueueService {
+
+        public BlockingServiceFactory(int threads, boolean writeStatistic) {
+            super(writeStatistic, threads);
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.PaddedSequence;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cost of the head and the tail counters sharing a cache line.
+ * <p/>
+ * Writers of the tail and writers of the head are run in one group,
+ * the unpadded counters are two {@link AtomicLong} allocated back-to-back as they were in the queue.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class FalseSharingBenchmark {
+
+    @State(Scope.Group)
+    public static class Unpadded {
+        public final AtomicLong tail = new AtomicLong();
+        public final AtomicLong head = new AtomicLong();
+    }
+
+    @State(Scope.Group)
+    public static class Padded {
+        public final PaddedSequence tail = new PaddedSequence();
+        public final PaddedSequence head = new PaddedSequence();
+    }
+
+    @Benchmark
+    @Group("unpadded_1x1")
+    @GroupThreads(1)
+    public long unpadded_1x1_tail(Unpadded counters) {
+        return increment(counters.tail);
+    }
+
+    @Benchmark
+    @Group("unpadded_1x1")
+    @GroupThreads(1)
+    public long unpadded_1x1_head(Unpadded counters) {
+        return increment(counters.head);
+    }
+
+    @Benchmark
+    @Group("padded_1x1")
+    @GroupThreads(1)
+    public long padded_1x1_tail(Padded counters) {
+        return increment(counters.tail);
+    }
+
+    @Benchmark
+    @Group("padded_1x1")
+    @GroupThreads(1)
+    public long padded_1x1_head(Padded counters) {
+        return increment(counters.head);
+    }
+
+    @Benchmark
+    @Group("unpadded_3x3")
+    @GroupThreads(3)
+    public long unpadded_3x3_tail(Unpadded counters) {
+        return increment(counters.tail);
+    }
+
+    @Benchmark
+    @Group("unpadded_3x3")
+    @GroupThreads(3)
+    public long unpadded_3x3_head(Unpadded counters) {
+        return increment(counters.head);
+    }
+
+    @Benchmark
+    @Group("padded_3x3")
+    @GroupThreads(3)
+    public long padded_3x3_tail(Padded counters) {
+        return increment(counters.tail);
+    }
+
+    @Benchmark
+    @Group("padded_3x3")
+    @GroupThreads(3)
+    public long padded_3x3_head(Padded counters) {
+        return increment(counters.head);
+    }
+
+    private static long increment(AtomicLong counter) {
+        long value;
+        do value = counter.get();
+        while (!counter.compareAndSet(value, value + 1));
+        return value;
+    }
+
+    private static long increment(PaddedSequence counter) {
+        long value;
+        do value = counter.get();
+        while (!counter.compareAndSet(value, value + 1));
+        return value;
+    }
+}
@@ -0,0 +1,46 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single thread paths of {@link ConcurrentArrayQueue} offer and poll, without contention the score is the cost
+ * of the instructions. Is intended to be run with the perfasm profiler, it needs a forked JVM.
+ */
+@State(Scope.Thread)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class HotPathBenchmark {
+
+    public static final int CAPACITY = 1024;
+    public static final Integer ELEMENT = 1;
+
+    public final ConcurrentArrayQueue<Integer> queue = new ConcurrentArrayQueue<>(CAPACITY);
+    public final ConcurrentArrayQueue<Integer> empty = new ConcurrentArrayQueue<>(CAPACITY);
+    public final ConcurrentArrayQueue<Integer> full = new ConcurrentArrayQueue<>(CAPACITY);
+
+    @Setup
+    public void setup() {
+        while (full.offer(ELEMENT)) ;
+    }
+
+    @Benchmark
+    public Integer offer_poll() {
+        queue.offer(ELEMENT);
+        return queue.poll();
+    }
+
+    @Benchmark
+    public boolean offer_full() {
+        return full.offer(ELEMENT);
+    }
+
+    @Benchmark
+    public Integer poll_empty() {
+        return empty.poll();
+    }
+}
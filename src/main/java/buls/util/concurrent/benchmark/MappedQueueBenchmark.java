@@ -0,0 +1,129 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import buls.util.concurrent.MappedArrayQueue;
+import buls.util.concurrent.benchmark.OffHeapQueueBenchmark.Record;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap records in a {@link ConcurrentArrayQueue} against records in a {@link MappedArrayQueue} file.
+ * <p/>
+ * Producers and consumers are run in one group, a failed offer or poll is counted as an operation too.
+ * The mapping is not forced, so the score does not include writes to the disk.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class MappedQueueBenchmark {
+
+    @State(Scope.Group)
+    public static class Heap {
+        @Param({"1024", "1000000"})
+        public int capacity;
+        public ConcurrentArrayQueue<Record> queue;
+
+        @Setup
+        public void setup() {
+            queue = new ConcurrentArrayQueue<>(capacity);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class Mapped {
+        @Param({"1024", "1000000"})
+        public int capacity;
+        public MappedArrayQueue queue;
+        public File file;
+
+        @Setup
+        public void setup() throws IOException {
+            file = File.createTempFile("mapped-queue", ".dat");
+            if (!file.delete()) throw new IOException("cannot delete " + file);
+            queue = new MappedArrayQueue(file, capacity, Record.SIZE);
+        }
+
+        @TearDown
+        public void tearDown() {
+            queue = null;
+            if (!file.delete()) file.deleteOnExit();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        public final Record record = new Record();
+        public long id;
+    }
+
+    @State(Scope.Thread)
+    public static class Consumer {
+        public final Record record = new Record();
+    }
+
+    @Benchmark
+    @Group("heap_1x1")
+    @GroupThreads(1)
+    public boolean heap_1x1_offer(Heap state, Producer producer) {
+        final long id = producer.id++;
+        return state.queue.offer(new Record().set(id, (int) id));
+    }
+
+    @Benchmark
+    @Group("heap_1x1")
+    @GroupThreads(1)
+    public long heap_1x1_poll(Heap state) {
+        final Record record = state.queue.poll();
+        return record != null ? record.id : 0;
+    }
+
+    @Benchmark
+    @Group("mapped_1x1")
+    @GroupThreads(1)
+    public boolean mapped_1x1_offer(Mapped state, Producer producer) {
+        final long id = producer.id++;
+        return state.queue.offer(producer.record.set(id, (int) id));
+    }
+
+    @Benchmark
+    @Group("mapped_1x1")
+    @GroupThreads(1)
+    public long mapped_1x1_poll(Mapped state, Consumer consumer) {
+        return state.queue.poll(consumer.record) ? consumer.record.id : 0;
+    }
+
+    @Benchmark
+    @Group("heap_3x3")
+    @GroupThreads(3)
+    public boolean heap_3x3_offer(Heap state, Producer producer) {
+        final long id = producer.id++;
+        return state.queue.offer(new Record().set(id, (int) id));
+    }
+
+    @Benchmark
+    @Group("heap_3x3")
+    @GroupThreads(3)
+    public long heap_3x3_poll(Heap state) {
+        final Record record = state.queue.poll();
+        return record != null ? record.id : 0;
+    }
+
+    @Benchmark
+    @Group("mapped_3x3")
+    @GroupThreads(3)
+    public boolean mapped_3x3_offer(Mapped state, Producer producer) {
+        final long id = producer.id++;
+        return state.queue.offer(producer.record.set(id, (int) id));
+    }
+
+    @Benchmark
+    @Group("mapped_3x3")
+    @GroupThreads(3)
+    public long mapped_3x3_poll(Mapped state, Consumer consumer) {
+        return state.queue.poll(consumer.record) ? consumer.record.id : 0;
+    }
+}
@@ -0,0 +1,40 @@
+package buls.util.concurrent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Several client threads send messages
+ */
+public abstract class MultiSenderBenchmark extends ServiceBenchmark {
+
+    @Threads(2)
+    @Benchmark
+    public void _2_threads() {
+        sendMessage();
+    }
+
+    @Threads(3)
+    @Benchmark
+    public void _3_threads() {
+        sendMessage();
+    }
+
+    @Threads(4)
+    @Benchmark
+    public void _4_threads() {
+        sendMessage();
+    }
+
+    @Threads(5)
+    @Benchmark
+    public void _5_threads() {
+        sendMessage();
+    }
+
+    @Threads(6)
+    @Benchmark
+    public void _6_threads() {
+        sendMessage();
+    }
+}
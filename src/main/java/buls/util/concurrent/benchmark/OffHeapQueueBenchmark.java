@@ -0,0 +1,118 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import buls.util.concurrent.OffHeapArrayQueue;
+import buls.util.concurrent.RecordDecoder;
+import buls.util.concurrent.RecordEncoder;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Heap records in a {@link ConcurrentArrayQueue} against binary records in an {@link OffHeapArrayQueue},
+ * is intended to be run with the gc profiler and large capacities, the heap queue is filled by a half.
+ * <p/>
+ * A producer and a consumer are run in one group, a failed offer or poll is counted as an operation too.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class OffHeapQueueBenchmark {
+
+    @State(Scope.Group)
+    public static class Heap {
+        @Param({"1024", "1000000"})
+        public int capacity;
+        public ConcurrentArrayQueue<Record> queue;
+
+        @Setup
+        public void setup() {
+            queue = new ConcurrentArrayQueue<>(capacity);
+            for (int i = 0; i < capacity / 2; i++) queue.offer(new Record().set(i, i));
+        }
+    }
+
+    @State(Scope.Group)
+    public static class OffHeap {
+        @Param({"1024", "1000000"})
+        public int capacity;
+        public OffHeapArrayQueue queue;
+
+        @Setup
+        public void setup() {
+            queue = new OffHeapArrayQueue(capacity, Record.SIZE);
+            final Record record = new Record();
+            for (int i = 0; i < capacity / 2; i++) queue.offer(record.set(i, i));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        public final Record record = new Record();
+        public long id;
+    }
+
+    @State(Scope.Thread)
+    public static class Consumer {
+        public final Record record = new Record();
+    }
+
+    @Benchmark
+    @Group("heap")
+    @GroupThreads(1)
+    public boolean heap_offer(Heap state, Producer producer) {
+        final long id = producer.id++;
+        return state.queue.offer(new Record().set(id, (int) id));
+    }
+
+    @Benchmark
+    @Group("heap")
+    @GroupThreads(1)
+    public long heap_poll(Heap state) {
+        final Record record = state.queue.poll();
+        return record != null ? record.id : 0;
+    }
+
+    @Benchmark
+    @Group("offHeap")
+    @GroupThreads(1)
+    public boolean offHeap_offer(OffHeap state, Producer producer) {
+        final long id = producer.id++;
+        return state.queue.offer(producer.record.set(id, (int) id));
+    }
+
+    @Benchmark
+    @Group("offHeap")
+    @GroupThreads(1)
+    public long offHeap_poll(OffHeap state, Consumer consumer) {
+        return state.queue.poll(consumer.record) ? consumer.record.id : 0;
+    }
+
+    public static final class Record implements RecordEncoder, RecordDecoder {
+        public static final int SIZE = 12;
+
+        public long id;
+        public int value;
+
+        public Record set(long id, int value) {
+            this.id = id;
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public void encode(@NotNull ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, id);
+            buffer.putInt(offset + 8, value);
+        }
+
+        @Override
+        public void decode(@NotNull ByteBuffer buffer, int offset) {
+            id = buffer.getLong(offset);
+            value = buffer.getInt(offset + 8);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import buls.util.concurrent.ConcurrentLongArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Boxed against primitive long values, is intended to be run with the gc profiler.
+ * <p/>
+ * A producer and a consumer are run in one group, a failed offer or poll is counted as an operation too.
+ * Offered values are out of the {@link Long#valueOf(long)} cache.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class PrimitiveQueueBenchmark {
+
+    public static final int CAPACITY = 1024;
+
+    @State(Scope.Group)
+    public static class Boxed {
+        public final ConcurrentArrayQueue<Long> queue = new ConcurrentArrayQueue<>(CAPACITY);
+    }
+
+    @State(Scope.Group)
+    public static class Primitive {
+        public final ConcurrentLongArrayQueue queue = new ConcurrentLongArrayQueue(CAPACITY);
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        public long value = 1 << 20;
+    }
+
+    @State(Scope.Thread)
+    public static class Consumer {
+        public final ConcurrentLongArrayQueue.Holder holder = new ConcurrentLongArrayQueue.Holder();
+    }
+
+    @Benchmark
+    @Group("boxed_1x1")
+    @GroupThreads(1)
+    public boolean boxed_1x1_offer(Boxed state, Producer producer) {
+        return state.queue.offer(producer.value++);
+    }
+
+    @Benchmark
+    @Group("boxed_1x1")
+    @GroupThreads(1)
+    public Long boxed_1x1_poll(Boxed state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("primitive_1x1")
+    @GroupThreads(1)
+    public boolean primitive_1x1_offer(Primitive state, Producer producer) {
+        return state.queue.offer(producer.value++);
+    }
+
+    @Benchmark
+    @Group("primitive_1x1")
+    @GroupThreads(1)
+    public long primitive_1x1_poll(Primitive state, Consumer consumer) {
+        return state.queue.poll(consumer.holder) ? consumer.holder.value : 0;
+    }
+
+    @Benchmark
+    @Group("boxed_3x3")
+    @GroupThreads(3)
+    public boolean boxed_3x3_offer(Boxed state, Producer producer) {
+        return state.queue.offer(producer.value++);
+    }
+
+    @Benchmark
+    @Group("boxed_3x3")
+    @GroupThreads(3)
+    public Long boxed_3x3_poll(Boxed state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("primitive_3x3")
+    @GroupThreads(3)
+    public boolean primitive_3x3_offer(Primitive state, Producer producer) {
+        return state.queue.offer(producer.value++);
+    }
+
+    @Benchmark
+    @Group("primitive_3x3")
+    @GroupThreads(3)
+    public long primitive_3x3_poll(Primitive state, Consumer consumer) {
+        return state.queue.poll(consumer.holder) ? consumer.holder.value : 0;
+    }
+}
@@ -0,0 +1,89 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.PriorityConcurrentArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PriorityConcurrentArrayQueue} against {@link PriorityBlockingQueue}, every thread offers a task of
+ * the next priority and polls a task. The queue is half filled before the measurement, so a poll does not find it empty
+ * and the unbounded {@link PriorityBlockingQueue} does not grow.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class PriorityQueueBenchmark {
+
+    public static final int LANE_CAPACITY = 1024;
+
+    @Param({"caq", "pbq"})
+    public String queueType;
+
+    @Param({"4", "8"})
+    public int priorities;
+
+    public Queue<Task> queue;
+    public Task[] tasks;
+
+    @Setup
+    public void setup() {
+        queue = "caq".equals(queueType)
+                ? new PriorityConcurrentArrayQueue<>(priorities, LANE_CAPACITY, Task::priority)
+                : new PriorityBlockingQueue<>(priorities * LANE_CAPACITY, Comparator.comparingInt(Task::priority));
+        tasks = new Task[priorities];
+        for (int i = 0; i < priorities; i++) tasks[i] = new Task(i);
+        for (int i = 0; i < priorities * LANE_CAPACITY / 2; i++) queue.offer(tasks[i % priorities]);
+    }
+
+    @State(Scope.Thread)
+    public static class Producer {
+        public int next;
+    }
+
+    private Task offerAndPoll(Producer producer) {
+        queue.offer(tasks[producer.next++ % priorities]);
+        return queue.poll();
+    }
+
+    @Threads(1)
+    @Benchmark
+    public Task _1_thread(Producer producer) {
+        return offerAndPoll(producer);
+    }
+
+    @Threads(2)
+    @Benchmark
+    public Task _2_threads(Producer producer) {
+        return offerAndPoll(producer);
+    }
+
+    @Threads(4)
+    @Benchmark
+    public Task _4_threads(Producer producer) {
+        return offerAndPoll(producer);
+    }
+
+    @Threads(6)
+    @Benchmark
+    public Task _6_threads(Producer producer) {
+        return offerAndPoll(producer);
+    }
+
+    public static final class Task {
+        private final int priority;
+
+        public Task(int priority) {
+            this.priority = priority;
+        }
+
+        public int priority() {
+            return priority;
+        }
+    }
+}
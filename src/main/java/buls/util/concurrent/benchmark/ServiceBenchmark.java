@@ -0,0 +1,77 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.benchmark.impl.AbstractExecutor;
+import buls.util.concurrent.benchmark.impl.AbstractNoBlockingQueueService;
+import buls.util.concurrent.benchmark.impl.AbstractServiceState;
+import buls.util.concurrent.benchmark.impl.EmptyExecutor;
+import buls.util.concurrent.benchmark.impl.Service;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a service which server threads read messages from a queue,
+ * benchmark threads are the clients sending the messages
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public abstract class ServiceBenchmark {
+
+    public Service service;
+
+    @Setup(Level.Iteration)
+    public void setup() {
+        AbstractServiceState factory = createServiceFactory();
+        service = factory.createService(createQueue(), createExecutor());
+        service.start();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        try {
+            service.shutdownAndWait();
+        } catch (InterruptedException e) {
+            e.printStackTrace();
+        }
+    }
+
+    protected void sendMessage() {
+        try {
+            service.sendMessage();
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * @return amount of the service's threads
+     */
+    protected abstract int readers();
+
+    @NotNull
+    protected abstract Queue<Runnable> createQueue();
+
+    @NotNull
+    protected AbstractExecutor createExecutor() {
+        return new EmptyExecutor();
+    }
+
+    @NotNull
+    protected AbstractServiceState createServiceFactory() {
+        return new ServiceFactory(readers(), false);
+    }
+
+    public static class ServiceFactory extends AbstractNoBlockingQueueService {
+
+        public ServiceFactory(int threads, boolean writeStatistic) {
+            super(writeStatistic, threads);
+        }
+
+
+    }
+}
@@ -0,0 +1,107 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.SharedArrayQueue;
+import buls.util.concurrent.benchmark.OffHeapQueueBenchmark.Record;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two processes on the same host: the current one sends records, a started one receives them.
+ * The records are passed by a {@link SharedArrayQueue} file or by a loopback socket.
+ * <p/>
+ * Arguments: [shared|socket] [records] [capacity]
+ */
+public class SharedQueueHarness {
+
+    public static void main(String[] args) throws Exception {
+        final String transport = args.length > 0 ? args[0] : "shared";
+        final long records = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000;
+        final int capacity = args.length > 2 ? Integer.parseInt(args[2]) : 1024;
+
+        final long start;
+        final Process receiver;
+        if ("shared".equals(transport)) {
+            final File file = File.createTempFile("shared-queue", ".dat");
+            file.deleteOnExit();
+            if (!file.delete()) throw new IOException("cannot delete " + file);
+            final SharedArrayQueue queue = new SharedArrayQueue(file, capacity, Record.SIZE);
+            receiver = start(SharedReceiver.class, file.getPath(), Long.toString(records), Integer.toString(capacity));
+
+            final Record record = new Record();
+            start = System.nanoTime();
+            for (long id = 0; id < records; ) {
+                if (queue.offer(record.set(id, (int) id))) id++;
+                else Thread.yield();
+            }
+        } else if ("socket".equals(transport)) {
+            try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+                receiver = start(SocketReceiver.class, Integer.toString(server.getLocalPort()), Long.toString(records));
+                try (Socket socket = server.accept()) {
+                    socket.setTcpNoDelay(true);
+                    final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+                    start = System.nanoTime();
+                    for (long id = 0; id < records; id++) {
+                        out.writeLong(id);
+                        out.writeInt((int) id);
+                    }
+                    out.flush();
+                }
+            }
+        } else {
+            throw new IllegalArgumentException("transport " + transport);
+        }
+        if (receiver.waitFor() != 0) throw new IllegalStateException("receiver failed");
+
+        final long elapsed = System.nanoTime() - start;
+        System.out.println(transport + ": " + records + " records, "
+                + records * TimeUnit.MILLISECONDS.toNanos(1) / elapsed + " ops/ms");
+    }
+
+    @NotNull
+    private static Process start(@NotNull Class<?> main, @NotNull String... args) throws IOException {
+        final String[] command = new String[4 + args.length];
+        command[0] = new File(System.getProperty("java.home"), "bin/java").getPath();
+        command[1] = "-cp";
+        command[2] = System.getProperty("java.class.path");
+        command[3] = main.getName();
+        System.arraycopy(args, 0, command, 4, args.length);
+        return new ProcessBuilder(command).inheritIO().start();
+    }
+
+    private static void check(@NotNull Record record, long id) {
+        if (record.id != id || record.value != (int) id) {
+            throw new IllegalStateException("expected " + id + ", received " + record.id + ", " + record.value);
+        }
+    }
+
+    public static final class SharedReceiver {
+        public static void main(String[] args) throws IOException {
+            final SharedArrayQueue queue = new SharedArrayQueue(new File(args[0]), Integer.parseInt(args[2]),
+                    Record.SIZE);
+            final long records = Long.parseLong(args[1]);
+            final Record record = new Record();
+            for (long id = 0; id < records; ) {
+                if (queue.poll(record)) check(record, id++);
+                else Thread.yield();
+            }
+        }
+    }
+
+    public static final class SocketReceiver {
+        public static void main(String[] args) throws IOException {
+            try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), Integer.parseInt(args[0]))) {
+                final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                final long records = Long.parseLong(args[1]);
+                final Record record = new Record();
+                for (long id = 0; id < records; id++) {
+                    check(record.set(in.readLong(), in.readInt()), id);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package buls.util.concurrent.benchmark;
+
+import org.openjdk.jmh.annotations.Param;
+
+/**
+ * Several client threads send messages to one server thread, for single consumer queues
+ */
+public abstract class SingleReaderBenchmark extends MultiSenderBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int capacity;
+
+    @Override
+    protected final int readers() {
+        return 1;
+    }
+}
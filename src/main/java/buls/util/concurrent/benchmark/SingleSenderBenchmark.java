@@ -0,0 +1,24 @@
+package buls.util.concurrent.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * One client thread sends messages to one server thread by default, for single producer queues
+ */
+public abstract class SingleSenderBenchmark extends ServiceBenchmark {
+    @Param({"10000", "1000000", "10000000"})
+    public int capacity;
+
+    @Override
+    protected int readers() {
+        return 1;
+    }
+
+    @Threads(1)
+    @Benchmark
+    public void _1_thread() {
+        sendMessage();
+    }
+}
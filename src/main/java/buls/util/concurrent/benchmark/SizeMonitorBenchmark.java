@@ -0,0 +1,84 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Producers and consumers of a {@link ConcurrentArrayQueue} with a monitoring thread which polls the size:
+ * without a monitor, by the exact {@link ConcurrentArrayQueue#size()}
+ * and by the cached {@link ConcurrentArrayQueue#approximateSize()}.
+ * <p/>
+ * Compare the offer and the poll scores of the groups, a failed offer or poll is counted as an operation too.
+ */
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class SizeMonitorBenchmark {
+
+    public static final int CAPACITY = 1024;
+    public static final Integer ELEMENT = 1;
+
+    @State(Scope.Group)
+    public static class Queue {
+        public final ConcurrentArrayQueue<Integer> queue = new ConcurrentArrayQueue<>(CAPACITY);
+    }
+
+    @Benchmark
+    @Group("none")
+    @GroupThreads(2)
+    public boolean none_offer(Queue state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("none")
+    @GroupThreads(2)
+    public Integer none_poll(Queue state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("exact")
+    @GroupThreads(2)
+    public boolean exact_offer(Queue state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("exact")
+    @GroupThreads(2)
+    public Integer exact_poll(Queue state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("exact")
+    @GroupThreads(1)
+    public int exact_size(Queue state) {
+        return state.queue.size();
+    }
+
+    @Benchmark
+    @Group("approximate")
+    @GroupThreads(2)
+    public boolean approximate_offer(Queue state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("approximate")
+    @GroupThreads(2)
+    public Integer approximate_poll(Queue state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("approximate")
+    @GroupThreads(1)
+    public int approximate_size(Queue state) {
+        return state.queue.approximateSize();
+    }
+}
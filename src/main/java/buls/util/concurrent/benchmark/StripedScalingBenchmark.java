@@ -0,0 +1,93 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import buls.util.concurrent.StripedConcurrentArrayQueue;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Queue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scaling of {@link StripedConcurrentArrayQueue} against one {@link ConcurrentArrayQueue} lane ("lanes" 0)
+ * from 8 up to 64 threads, a half offers and a half polls. A failed offer or poll is counted as an operation too.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(time = 50, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(timeUnit = TimeUnit.MILLISECONDS, time = 50)
+public class StripedScalingBenchmark {
+
+    public static final int CAPACITY = 1 << 14;
+    public static final Integer ELEMENT = 1;
+
+    @State(Scope.Group)
+    public static class Lanes {
+        @Param({"0", "4", "8", "16", "32"})
+        public int lanes;
+
+        public Queue<Integer> queue;
+
+        @Setup
+        public void setup() {
+            queue = lanes == 0
+                    ? new ConcurrentArrayQueue<>(CAPACITY)
+                    : new StripedConcurrentArrayQueue<>(CAPACITY, lanes);
+        }
+    }
+
+    @Benchmark
+    @Group("threads8")
+    @GroupThreads(4)
+    public boolean threads8_offer(Lanes state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("threads8")
+    @GroupThreads(4)
+    public Integer threads8_poll(Lanes state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("threads16")
+    @GroupThreads(8)
+    public boolean threads16_offer(Lanes state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("threads16")
+    @GroupThreads(8)
+    public Integer threads16_poll(Lanes state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("threads32")
+    @GroupThreads(16)
+    public boolean threads32_offer(Lanes state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("threads32")
+    @GroupThreads(16)
+    public Integer threads32_poll(Lanes state) {
+        return state.queue.poll();
+    }
+
+    @Benchmark
+    @Group("threads64")
+    @GroupThreads(32)
+    public boolean threads64_offer(Lanes state) {
+        return state.queue.offer(ELEMENT);
+    }
+
+    @Benchmark
+    @Group("threads64")
+    @GroupThreads(32)
+    public Integer threads64_poll(Lanes state) {
+        return state.queue.poll();
+    }
+}
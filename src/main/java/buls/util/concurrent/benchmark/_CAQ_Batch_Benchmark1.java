@@ -0,0 +1,36 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import buls.util.concurrent.benchmark.impl.AbstractBatchQueueService;
+import buls.util.concurrent.benchmark.impl.AbstractServiceState;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Queue;
+
+/**
+ * a benchmark operation sends batchSize messages, so the score is batches per time unit
+ */
+public class _CAQ_Batch_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Param({"1", "16", "64", "256"})
+    public int batchSize;
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new ConcurrentArrayQueue<>(capacity, false);
+    }
+
+    @NotNull
+    @Override
+    protected AbstractServiceState createServiceFactory() {
+        return new BatchServiceFactory(readers(), false, batchSize);
+    }
+
+    public static class BatchServiceFactory extends AbstractBatchQueueService {
+
+        public BatchServiceFactory(int threads, boolean writeStatistic, int batchSize) {
+            super(writeStatistic, threads, batchSize);
+        }
+    }
+}
@@ -13,9 +13,15 @@ import java.util.concurrent.TimeUnit;
 
 public class _CAQ_Benchmark1 extends BoundedQueueBenchmark {
 
+    /**
+     * true if locked cells are released by a release store instead of a CAS
+     */
+    @Param({"false", "true"})
+    public boolean lazyRelease;
+
     @Override @NotNull
     protected Queue<Runnable> createQueue() {
-        return new ConcurrentArrayQueue<>(capacity);
+        return new ConcurrentArrayQueue<>(capacity, false, 1, lazyRelease);
     }
 
 }
@@ -0,0 +1,15 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ScrambledConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+public class _CAQ_Scrambled_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new ScrambledConcurrentArrayQueue<>(capacity);
+    }
+
+}
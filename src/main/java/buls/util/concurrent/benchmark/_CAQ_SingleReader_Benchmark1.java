@@ -0,0 +1,18 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * {@link _CAQ_Benchmark1} with one reader, a baseline for {@link _MPSC_Benchmark1}
+ */
+public class _CAQ_SingleReader_Benchmark1 extends SingleReaderBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new ConcurrentArrayQueue<>(capacity);
+    }
+
+}
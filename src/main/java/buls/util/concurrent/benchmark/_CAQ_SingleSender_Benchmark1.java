@@ -0,0 +1,26 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Queue;
+
+/**
+ * {@link _CAQ_Benchmark1} with one sender, a baseline for {@link _SPSC_Benchmark1} and {@link _SPMC_Benchmark1}
+ */
+public class _CAQ_SingleSender_Benchmark1 extends SingleSenderBenchmark {
+    @Param({"1", "2", "3"})
+    public int readers;
+
+    @Override
+    protected int readers() {
+        return readers;
+    }
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new ConcurrentArrayQueue<>(capacity);
+    }
+
+}
@@ -0,0 +1,25 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.ConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Queue;
+
+/**
+ * levels occupy 8 * levelStride bytes per cell
+ */
+public class _CAQ_Strided_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    public int levelStride;
+
+    @Param({"false", "true"})
+    public boolean lazyRelease;
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new ConcurrentArrayQueue<>(capacity, false, levelStride, lazyRelease);
+    }
+
+}
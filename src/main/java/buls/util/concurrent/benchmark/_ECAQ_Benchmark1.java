@@ -0,0 +1,18 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.EliminationConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * failed producers and consumers exchange elements in an arena, compare with {@link _CAQ_Benchmark1}
+ */
+public class _ECAQ_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new EliminationConcurrentArrayQueue<>(capacity);
+    }
+
+}
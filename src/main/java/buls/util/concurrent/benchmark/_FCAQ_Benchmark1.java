@@ -0,0 +1,18 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.FlatCombiningArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * one combiner thread applies the published offers and polls, compare with {@link _CAQ_Benchmark1}
+ */
+public class _FCAQ_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new FlatCombiningArrayQueue<>(capacity);
+    }
+
+}
@@ -0,0 +1,21 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.GrowableConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Queue;
+
+/**
+ * the capacity is the max capacity, the storage starts from the initial capacity
+ */
+public class _GCAQ_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Param({"1024"})
+    public int initialCapacity;
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new GrowableConcurrentArrayQueue<>(Math.min(initialCapacity, capacity), capacity);
+    }
+}
@@ -0,0 +1,19 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.research.ConcurrentArrayQueueWithLockByDemand;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * threads take a lock after many fails, compare with {@link _FCAQ_Benchmark1} and {@link _CAQ_Benchmark1}
+ */
+@SuppressWarnings("deprecation")
+public class _LBDCAQ_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new ConcurrentArrayQueueWithLockByDemand<>(capacity, false);
+    }
+
+}
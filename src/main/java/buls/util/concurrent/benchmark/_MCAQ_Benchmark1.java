@@ -0,0 +1,18 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.MonotonicConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * counters are never reset, compare with {@link _CAQ_Benchmark1}
+ */
+public class _MCAQ_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new MonotonicConcurrentArrayQueue<>(capacity);
+    }
+
+}
@@ -0,0 +1,15 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.MpscArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+public class _MPSC_Benchmark1 extends SingleReaderBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new MpscArrayQueue<>(capacity);
+    }
+
+}
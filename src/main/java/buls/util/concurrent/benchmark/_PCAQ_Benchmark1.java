@@ -0,0 +1,18 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.PowerOfTwoConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * capacities are rounded up to 16384, 1048576 and 16777216, compare with {@link _CAQ_Benchmark1}
+ */
+public class _PCAQ_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new PowerOfTwoConcurrentArrayQueue<>(capacity);
+    }
+
+}
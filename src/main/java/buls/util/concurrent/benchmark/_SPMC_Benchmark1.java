@@ -0,0 +1,23 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.SpmcArrayQueue;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Queue;
+
+public class _SPMC_Benchmark1 extends SingleSenderBenchmark {
+    @Param({"1", "2", "3"})
+    public int readers;
+
+    @Override
+    protected int readers() {
+        return readers;
+    }
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new SpmcArrayQueue<>(capacity);
+    }
+
+}
@@ -0,0 +1,15 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.SpscArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+public class _SPSC_Benchmark1 extends SingleSenderBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new SpscArrayQueue<>(capacity);
+    }
+
+}
@@ -0,0 +1,18 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.UnboundedConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.Param;
+
+import java.util.Queue;
+
+public class _UCAQ_Benchmark1 extends AbstractBenchmark {
+
+    @Param({"1024", "16384"})
+    public int chunkCapacity;
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new UnboundedConcurrentArrayQueue<>(chunkCapacity);
+    }
+}
@@ -0,0 +1,18 @@
+package buls.util.concurrent.benchmark;
+
+import buls.util.concurrent.VarHandleConcurrentArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * levels are a long array accessed by a VarHandle, compare with {@link _CAQ_Benchmark1}
+ */
+public class _VHCAQ_Benchmark1 extends BoundedQueueBenchmark {
+
+    @Override @NotNull
+    protected Queue<Runnable> createQueue() {
+        return new VarHandleConcurrentArrayQueue<>(capacity);
+    }
+
+}
@@ -0,0 +1,30 @@
+package buls.util.concurrent.benchmark.impl;
+
+import buls.util.concurrent.AbstractLevelArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+
+/**
+ * Creates services which exchange messages by batches of an {@link AbstractLevelArrayQueue}
+ */
+public abstract class AbstractBatchQueueService extends AbstractServiceState {
+
+    protected final boolean writeStatistic;
+    private final int threads;
+    private final int batchSize;
+
+    public AbstractBatchQueueService(boolean writeStatistic, int threads, int batchSize) {
+        this.writeStatistic = writeStatistic;
+        this.threads = threads;
+        this.batchSize = batchSize;
+    }
+
+    @NotNull
+    @Override
+    public Service createService(Queue<Runnable> queue, AbstractExecutor executor) {
+        return new BatchQueueConcurrentService(getClass().getSimpleName(), threads,
+                writeStatistic, writeStatistic, false, executor, (AbstractLevelArrayQueue<Runnable>) queue, batchSize);
+    }
+
+}
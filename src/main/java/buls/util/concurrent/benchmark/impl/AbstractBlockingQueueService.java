@@ -0,0 +1,28 @@
+package buls.util.concurrent.benchmark.impl;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Creates services which server threads wait for messages in a {@link BlockingQueue}
+ */
+public abstract class AbstractBlockingQueueService extends AbstractServiceState {
+
+    protected final boolean writeStatistic;
+    private final int threads;
+
+    public AbstractBlockingQueueService(boolean writeStatistic, int threads) {
+        this.writeStatistic = writeStatistic;
+        this.threads = threads;
+    }
+
+    @NotNull
+    @Override
+    public Service createService(Queue<Runnable> queue, AbstractExecutor executor) {
+        return new BlockingQueueConcurrentService(getClass().getSimpleName(), threads,
+                writeStatistic, writeStatistic, false, executor, (BlockingQueue<Runnable>) queue);
+    }
+
+}
@@ -0,0 +1,77 @@
+package buls.util.concurrent.benchmark.impl;
+
+import buls.util.concurrent.AbstractLevelArrayQueue;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.function.Consumer;
+
+/**
+ * Client threads put messages by {@link AbstractLevelArrayQueue#offerBatch(Object[], int, int)},
+ * server threads take them by {@link AbstractLevelArrayQueue#drain(Consumer, int)} into a thread local buffer.
+ * A single message send puts the whole batch
+ */
+public class BatchQueueConcurrentService extends ConcurrentService {
+
+    private final AbstractLevelArrayQueue<Runnable> queue;
+    private final int batchSize;
+    private final Runnable[] batch;
+    private final ThreadLocal<Buffer> buffers = new ThreadLocal<Buffer>() {
+        @Override
+        protected Buffer initialValue() {
+            return new Buffer();
+        }
+    };
+
+    public BatchQueueConcurrentService(String name, int threadAmount,
+                                       boolean writeClientStatistic, boolean writeServerStatistic,
+                                       boolean loopJoin, AbstractExecutor executor,
+                                       AbstractLevelArrayQueue<Runnable> queue, int batchSize) {
+        super(name, threadAmount, writeClientStatistic, writeServerStatistic, loopJoin, executor);
+        if (batchSize <= 0) throw new IllegalArgumentException("batchSize<=0");
+        this.queue = queue;
+        this.batchSize = batchSize;
+        this.batch = new Runnable[batchSize];
+        Arrays.fill(batch, executor);
+    }
+
+    @Override
+    protected final Queue<Runnable> getQueue() {
+        return queue;
+    }
+
+    @Override
+    protected void putToQueue() throws InterruptedException {
+        int offered = 0;
+        while (offered < batchSize) {
+            offered += queue.offerBatch(batch, offered, batchSize);
+            if (shutdown) break;
+        }
+    }
+
+    @Override
+    protected Runnable getFromQueue() throws InterruptedException {
+        Buffer buffer = buffers.get();
+        while (buffer.isEmpty()) {
+            if (queue.drain(buffer, batchSize) == 0 && shutdown && queue.isEmpty()) break;
+        }
+        return buffer.poll();
+    }
+
+    @Override
+    protected Runnable getFromQueueAfterInterruption() {
+        Runnable runnable = buffers.get().poll();
+        return runnable != null ? runnable : queue.poll();
+    }
+
+    private static final class Buffer extends ArrayDeque<Runnable> implements Consumer<Runnable> {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void accept(@NotNull Runnable runnable) {
+            add(runnable);
+        }
+    }
+}
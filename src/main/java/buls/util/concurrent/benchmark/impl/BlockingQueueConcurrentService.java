@@ -0,0 +1,40 @@
+package buls.util.concurrent.benchmark.impl;
+
+import java.util.Queue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Server threads wait for messages in {@link BlockingQueue#take()} instead of spinning on poll
+ */
+public class BlockingQueueConcurrentService extends ConcurrentService {
+
+    private final BlockingQueue<Runnable> queue;
+
+    public BlockingQueueConcurrentService(String name, int threadAmount,
+                                          boolean writeClientStatistic, boolean writeServerStatistic,
+                                          boolean loopJoin, AbstractExecutor executor, BlockingQueue<Runnable> queue) {
+        super(name, threadAmount, writeClientStatistic, writeServerStatistic, loopJoin, executor);
+        this.queue = queue;
+    }
+
+    @Override
+    protected final Queue getQueue() {
+        return queue;
+    }
+
+    @Override
+    protected void putToQueue() throws InterruptedException {
+        queue.put(executor);
+    }
+
+    @Override
+    protected Runnable getFromQueue() throws InterruptedException {
+        return queue.take();
+    }
+
+    @Override
+    protected Runnable getFromQueueAfterInterruption() {
+        return queue.poll();
+    }
+
+}
@@ -113,7 +113,6 @@ public abstract class ConcurrentService extends AbstractService {
         Queue queue = getQueue();
         while (!queue.isEmpty()) {
             ++iterations;
-            int size = queue.size();
             checkLiveThreads();
             //Thread.sleep(10);
 
@@ -3,9 +3,9 @@ package buls.util.concurrent.research;
 import buls.util.concurrent.AbstractArrayQueue;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import sun.misc.Unsafe;
 
-import java.lang.reflect.Field;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.util.concurrent.atomic.AtomicInteger;
 
 /**
@@ -13,32 +13,7 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class SimpleConcurrentArrayQueue<E> extends AbstractArrayQueue<E> {
 
-    private static final Unsafe unsafe;
-
-    static {
-        Field field;
-        try {
-            field = Unsafe.class.getDeclaredField("theUnsafe");
-        } catch (NoSuchFieldException e) {
-            throw new InternalError("cannot retrieve unsafe field", e);
-        }
-        field.setAccessible(true);
-        try {
-            unsafe = (Unsafe) field.get(null);
-        } catch (IllegalAccessException e) {
-            throw new InternalError("cannot retrieve unsafe object", e);
-        }
-    }
-
-    private static final int base = unsafe.arrayBaseOffset(Object[].class);
-    private static final int shift;
-
-    static {
-        int scale = unsafe.arrayIndexScale(Object[].class);
-        if ((scale & (scale - 1)) != 0)
-            throw new Error("data type scale not a power of two");
-        shift = 31 - Integer.numberOfLeadingZeros(scale);
-    }
+    private static final VarHandle ELEMENTS = MethodHandles.arrayElementVarHandle(Object[].class);
 
     private final int MAX_TAIL;
 
@@ -52,10 +27,6 @@ public class SimpleConcurrentArrayQueue<E> extends AbstractArrayQueue<E> {
         MAX_TAIL = capacity == 0 ? 0 : Integer.MAX_VALUE - (Integer.MAX_VALUE % capacity) - 1;
     }
 
-    private static long byteOffset(int i) {
-        return ((long) i << shift) + base;
-    }
-
     @NotNull
     @Override
     public String toString() {
@@ -147,6 +118,18 @@ public class SimpleConcurrentArrayQueue<E> extends AbstractArrayQueue<E> {
         return e;
     }
 
+    @Nullable
+    @Override
+    public E peek() {
+        int tail = this.tail.get();
+        int amount = this.amount.get();
+        if (amount <= 0 || amount > capacity()) return null;
+
+        int head = tail - amount;
+        if (tailOverflow && head < 0) head = max_tail() + head + 1;
+        return head < 0 ? null : _get(_index(head));
+    }
+
     protected int getAndIncrementTail() {
         int result = tail.getAndIncrement();
         boolean overflow = isOverflow(result);
@@ -191,7 +174,7 @@ public class SimpleConcurrentArrayQueue<E> extends AbstractArrayQueue<E> {
 
     @Nullable
     protected final E _get(int index) {
-        return (E) getRaw(checkedByteOffset(index));
+        return (E) ELEMENTS.getVolatile(elements, index);
     }
 
     @Override
@@ -207,22 +190,8 @@ public class SimpleConcurrentArrayQueue<E> extends AbstractArrayQueue<E> {
         else return null;
     }
 
-    private long checkedByteOffset(int i) {
-        if (i < 0 || i >= elements.length)
-            throw new IndexOutOfBoundsException("index " + i);
-        return byteOffset(i);
-    }
-
-    private Object getRaw(long offset) {
-        return unsafe.getObjectVolatile(elements, offset);
-    }
-
-    private boolean compareAndSetRaw(long offset, Object expect, Object update) {
-        return unsafe.compareAndSwapObject(elements, offset, expect, update);
-    }
-
     public final boolean _cas(int i, Object expect, Object update) {
-        return compareAndSetRaw(checkedByteOffset(i), expect, update);
+        return ELEMENTS.compareAndSet(elements, i, expect, update);
     }
 
     protected final int delta(final int head, final int tail) {
@@ -0,0 +1,63 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * The inherited tests use the contention driven backoff, the other strategies are checked by the concurrent test
+ */
+public class BackoffConcurrentArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return createQueue(capacity, BackoffStrategies.contention());
+    }
+
+    private ConcurrentArrayQueue<String> createQueue(int capacity, BackoffStrategy backoff) {
+        return new ConcurrentArrayQueue<>(capacity, true, 1, false, backoff);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testByName() {
+        Assert.assertSame(BackoffStrategies.byName("none"), BackoffStrategies.NONE);
+        for (String name : new String[]{"exponential", "randomized", "contention"}) {
+            Assert.assertTrue(BackoffStrategies.byName(name).toString().startsWith(name));
+        }
+        Assert.assertSame(new ConcurrentArrayQueue<String>(1).backoff(), BackoffStrategies.NONE);
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testUnknownName() {
+        BackoffStrategies.byName("sleep");
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testWrongSpins() {
+        BackoffStrategies.exponential(8, 4);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testContentionEstimate() {
+        BackoffStrategy backoff = BackoffStrategies.contention();
+        for (int i = 0; i < 100; i++) backoff.completed(8);
+        Assert.assertEquals(backoff.toString(), "contention .." + BackoffStrategies.DEFAULT_MAX_SPINS + ", estimate 8");
+        for (int i = 0; i < 100; i++) backoff.completed(1);
+        Assert.assertEquals(backoff.toString(), "contention .." + BackoffStrategies.DEFAULT_MAX_SPINS + ", estimate 1");
+        //the operations without fails decay the estimate
+        for (int i = 0; i < 100; i++) backoff.completed(0);
+        Assert.assertEquals(backoff.toString(), "contention .." + BackoffStrategies.DEFAULT_MAX_SPINS + ", estimate 0");
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testStrategiesInConcurrentMode() {
+        int inserts = Math.min(3, maxInserters());
+        int getters = Math.min(3, maxGetters());
+        int attemptsPerInsert = 100_000;
+        for (String name : new String[]{"none", "exponential", "randomized", "contention"}) {
+            ConcurrentArrayQueue<String> queue = createQueue(16, BackoffStrategies.byName(name));
+            testQueueConcurrently(queue, inserts, attemptsPerInsert, getters, "testStrategiesInConcurrentMode " + name,
+                    inserts * attemptsPerInsert * 3, getters * attemptsPerInsert * 3);
+            Assert.assertTrue(queue.isEmpty());
+        }
+    }
+}
@@ -2,6 +2,7 @@ package buls.util.concurrent;
 
 import buls.util.concurrent.research.QueueWithStatistic;
 import org.testng.Assert;
+import org.testng.SkipException;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayOutputStream;
@@ -182,6 +183,9 @@ public abstract class BaseArrayQueueTest {
 
     private void testQueueConcurrently(int capacity, int inserts, int attemptsPerInsert, int getters,
                                        String testName, int threshold) {
+        if (inserts > maxInserters() || getters > maxGetters()) {
+            throw new SkipException(testName + " needs " + inserts + " inserters and " + getters + " getters");
+        }
         final Queue<String> queue = createQueue(capacity, WRITE_STATISTIC);
 
         testQueueConcurrently(queue, inserts, attemptsPerInsert, getters, testName, threshold, threshold);
@@ -292,6 +296,20 @@ public abstract class BaseArrayQueueTest {
 
     protected abstract Queue<String> createQueue(int capacity, boolean writeStatistic);
 
+    /**
+     * @return how many threads can offer to the tested queue at the same time
+     */
+    protected int maxInserters() {
+        return Integer.MAX_VALUE;
+    }
+
+    /**
+     * @return how many threads can poll from the tested queue at the same time
+     */
+    protected int maxGetters() {
+        return Integer.MAX_VALUE;
+    }
+
     private void checkFail(long fails, int threshold, Queue queue, List<Thread> threads) {
         if (fails > threshold) {
             ByteArrayOutputStream stream = new ByteArrayOutputStream();
@@ -0,0 +1,200 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Blocking operations on top of the base array queue tests
+ */
+public class BlockingConcurrentArrayQueueTest extends BaseArrayQueueTest {
+
+    @Override
+    protected BlockingConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new BlockingConcurrentArrayQueue<>(capacity);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testNullElements() throws InterruptedException {
+        BlockingConcurrentArrayQueue<String> queue = createQueue(1, false);
+        try {
+            queue.put(null);
+            Assert.fail("put");
+        } catch (NullPointerException expected) {
+        }
+        try {
+            queue.offer(null, 10, TimeUnit.MILLISECONDS);
+            Assert.fail("timed offer");
+        } catch (NullPointerException expected) {
+        }
+        try {
+            queue.offer(null);
+            Assert.fail("offer");
+        } catch (NullPointerException expected) {
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testTimeouts() throws InterruptedException {
+        BlockingConcurrentArrayQueue<String> queue = createQueue(1, false);
+        Assert.assertNull(queue.poll(10, TimeUnit.MILLISECONDS));
+
+        Assert.assertTrue(queue.offer("Раз", 10, TimeUnit.MILLISECONDS));
+        Assert.assertFalse(queue.offer("Два", 10, TimeUnit.MILLISECONDS));
+        Assert.assertEquals(queue.remainingCapacity(), 0);
+
+        Assert.assertEquals(queue.poll(10, TimeUnit.MILLISECONDS), "Раз");
+        Assert.assertEquals(queue.remainingCapacity(), 1);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testDrainTo() {
+        BlockingConcurrentArrayQueue<String> queue = createQueue(3, false);
+        queue.offer("Раз");
+        queue.offer("Два");
+        queue.offer("Три");
+
+        List<String> result = new ArrayList<>();
+        Assert.assertEquals(queue.drainTo(result, 2), 2);
+        Assert.assertEquals(queue.drainTo(result), 1);
+        Assert.assertEquals(queue.drainTo(result), 0);
+
+        Assert.assertEquals(result.get(0), "Раз");
+        Assert.assertEquals(result.get(1), "Два");
+        Assert.assertEquals(result.get(2), "Три");
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testTakeWaitsForPut() throws InterruptedException {
+        final BlockingConcurrentArrayQueue<String> queue = createQueue(1, false);
+        final AtomicReference<String> taken = new AtomicReference<>();
+        final CountDownLatch started = new CountDownLatch(1);
+        Thread getter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    started.countDown();
+                    taken.set(queue.take());
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }, "take-thread");
+        getter.start();
+        started.await();
+        waitParking(getter);
+
+        queue.put("Раз");
+        getter.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(getter.isAlive());
+        Assert.assertEquals(taken.get(), "Раз");
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testPutWaitsForTake() throws InterruptedException {
+        final BlockingConcurrentArrayQueue<String> queue = createQueue(1, false);
+        queue.put("Раз");
+        Thread inserter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.put("Два");
+                } catch (InterruptedException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }, "put-thread");
+        inserter.start();
+        waitParking(inserter);
+
+        Assert.assertEquals(queue.take(), "Раз");
+        inserter.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(inserter.isAlive());
+        Assert.assertEquals(queue.take(), "Два");
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testInterruptWaiting() throws InterruptedException {
+        final BlockingConcurrentArrayQueue<String> queue = createQueue(1, false);
+        final AtomicReference<Throwable> error = new AtomicReference<>();
+        Thread getter = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    queue.take();
+                } catch (InterruptedException e) {
+                    error.set(e);
+                }
+            }
+        }, "take-thread");
+        getter.start();
+        waitParking(getter);
+
+        getter.interrupt();
+        getter.join(TimeUnit.SECONDS.toMillis(10));
+        Assert.assertFalse(getter.isAlive());
+        Assert.assertTrue(error.get() instanceof InterruptedException);
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testBlockingInConcurrentMode() throws InterruptedException {
+        final int inserts = 4;
+        final int attemptsPerInsert = 100_000;
+        final int getters = 4;
+        final BlockingConcurrentArrayQueue<String> queue = createQueue(16, false);
+        final CountDownLatch taken = new CountDownLatch(inserts * attemptsPerInsert);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < getters; ++i) {
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            Assert.assertNotNull(queue.take());
+                            taken.countDown();
+                        }
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            }, "take-thread-" + i);
+            thread.setDaemon(true);
+            thread.start();
+            threads.add(thread);
+        }
+        for (int i = 0; i < inserts; ++i) {
+            final String name = "put-thread-" + i;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        for (int attempt = 0; attempt < attemptsPerInsert; attempt++) {
+                            queue.put(name + "-" + attempt);
+                        }
+                    } catch (InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                }
+            }, name);
+            thread.start();
+        }
+
+        Assert.assertTrue(taken.await(60, TimeUnit.SECONDS), queue.toString());
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    private void waitParking(Thread thread) throws InterruptedException {
+        while (thread.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+    }
+}
@@ -4,6 +4,14 @@ package buls.util.concurrent;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
 /**
  * Created by Bulgakov Alex on 31.05.2014.
  */
@@ -27,8 +35,8 @@ public class ConcurrentArrayQueueTest extends BaseArrayQueueTest {
         queue.tailSequence.set(tail);
         queue.headSequence.set(tail);
         long nextLevel = queue.afterGetLevel(tail - 1);
-        queue.levels.set(0, nextLevel);
-        queue.levels.set(1, nextLevel);
+        queue._setLevel(0, nextLevel);
+        queue._setLevel(1, nextLevel);
 
         Assert.assertTrue(queue.offer("C"));
         Assert.assertTrue(queue.offer("D"));
@@ -85,6 +93,7 @@ public class ConcurrentArrayQueueTest extends BaseArrayQueueTest {
 
     protected void testOverflow(int capacity, int iterations) {
         ConcurrentArrayQueue<String> queue = createQueue(capacity, false);
+        capacity = queue.capacity();
         int maxValue = queue.max_sequence_value();
         long tail = maxValue - (maxValue % capacity);
         testOverflow(capacity, iterations, tail, queue);
@@ -102,7 +111,7 @@ public class ConcurrentArrayQueueTest extends BaseArrayQueueTest {
         System.out.println(queue);
     }
 
-    private void initQueueOverflow(ConcurrentArrayQueue<String> queue, int capacity, long tail) {
+    protected void initQueueOverflow(ConcurrentArrayQueue<String> queue, int capacity, long tail) {
         Assert.assertEquals(tail % queue.capacity(), 0);
 
         for (int i = 0; i < capacity; i++) {
@@ -115,7 +124,7 @@ public class ConcurrentArrayQueueTest extends BaseArrayQueueTest {
         long nextLevel = queue.afterGetLevel(tail - 1);
         //Assert.assertEquals(nextLevel % queue.capacity(), 0);
         for (int i = 0; i < capacity; i++) {
-            queue.levels.set(i, nextLevel);
+            queue._setLevel(i, nextLevel);
         }
 
         System.out.println(queue);
@@ -127,12 +136,13 @@ public class ConcurrentArrayQueueTest extends BaseArrayQueueTest {
 
     @Test(priority = OVERFLOW_MULTI)
     public void testOverflowInConcurrentMode6() {
-        int inserts = 2;
+        int inserts = Math.min(2, maxInserters());
         int attemptsPerInsert = 1_000_000;
         int capacity = 5;
-        int getters = 2;
+        int getters = Math.min(2, maxGetters());
 
         final ConcurrentArrayQueue<String> queue = createQueue(capacity, WRITE_STATISTIC);
+        capacity = queue.capacity();
         int maxValue = queue.max_sequence_value();
         long tail = maxValue - (maxValue % capacity) - capacity;
 
@@ -144,12 +154,13 @@ public class ConcurrentArrayQueueTest extends BaseArrayQueueTest {
 
     @Test(priority = OVERFLOW_MULTI)
     public void testOverflowInConcurrentMode7() {
-        int inserts = 2;
+        int inserts = Math.min(2, maxInserters());
         int attemptsPerInsert = 1_000_000;
         int capacity = 1;
-        int getters = 2;
+        int getters = Math.min(2, maxGetters());
 
         final ConcurrentArrayQueue<String> queue = createQueue(capacity, WRITE_STATISTIC);
+        capacity = queue.capacity();
         int maxValue = queue.max_sequence_value();
         long tail = maxValue - (maxValue % capacity) - capacity;
 
@@ -158,4 +169,320 @@ public class ConcurrentArrayQueueTest extends BaseArrayQueueTest {
         testQueueConcurrently(queue, inserts, attemptsPerInsert, getters, "testInsertAnGetsInConcurrentMode7",
                 (int) (inserts * attemptsPerInsert * 3), (int) (getters * attemptsPerInsert * 3));
     }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testOfferBatch() {
+        ConcurrentArrayQueue<String> queue = createQueue(4, false);
+        String[] batch = {"Раз", "Два", "Три", "Четыре", "Пять"};
+
+        Assert.assertEquals(queue.offerBatch(batch, 1, 3), 2);
+        Assert.assertEquals(queue.offerBatch(batch, 0, 5), queue.capacity() - 2);
+        Assert.assertEquals(queue.offerBatch(batch, 0, 5), 0);
+
+        Assert.assertEquals(queue.poll(), "Два");
+        Assert.assertEquals(queue.poll(), "Три");
+        Assert.assertEquals(queue.poll(), "Раз");
+        Assert.assertEquals(queue.offerBatch(Arrays.asList("Шесть", "Семь")), 2);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testDrain() {
+        ConcurrentArrayQueue<String> queue = createQueue(4, false);
+        final List<String> result = new ArrayList<>();
+        Consumer<String> consumer = new Consumer<String>() {
+            @Override
+            public void accept(String s) {
+                result.add(s);
+            }
+        };
+        Assert.assertEquals(queue.drain(consumer, 10), 0);
+
+        queue.offer("Раз");
+        queue.offer("Два");
+        queue.offer("Три");
+        Assert.assertEquals(queue.drain(consumer, 2), 2);
+        Assert.assertEquals(queue.drain(consumer, 2), 1);
+        Assert.assertEquals(result, Arrays.asList("Раз", "Два", "Три"));
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.offer("Четыре"));
+        Assert.assertEquals(queue.poll(), "Четыре");
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testDrainThrowingConsumer() {
+        ConcurrentArrayQueue<String> queue = createQueue(4, false);
+        final List<String> result = new ArrayList<>();
+        Consumer<String> consumer = s -> {
+            result.add(s);
+            if (result.size() == 2) throw new IllegalStateException(s);
+        };
+        queue.offer("Раз");
+        queue.offer("Два");
+        queue.offer("Три");
+        queue.offer("Четыре");
+        try {
+            queue.drain(consumer, 3);
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "Два");
+        }
+        //the delivery stops, the third locked element is lost
+        Assert.assertEquals(result, Arrays.asList("Раз", "Два"));
+        Assert.assertEquals(queue.size(), 1);
+        Assert.assertEquals(queue.poll(), "Четыре");
+        Assert.assertTrue(queue.offer("Пять"));
+        Assert.assertEquals(queue.poll(), "Пять");
+    }
+
+    @Test(priority = OVERFLOW_SINGLE)
+    public void testBatchOverflow() {
+        ConcurrentArrayQueue<String> queue = createQueue(3, false);
+        int capacity = queue.capacity();
+        int maxValue = queue.max_sequence_value();
+        initQueueOverflow(queue, capacity, maxValue - (maxValue % capacity));
+
+        final List<String> result = new ArrayList<>();
+        Consumer<String> consumer = new Consumer<String>() {
+            @Override
+            public void accept(String s) {
+                result.add(s);
+            }
+        };
+        String[] batch = {"A", "B", "C", "D"};
+        int expected = 0;
+        for (int i = 0; i < 1000; i++) {
+            expected += queue.offerBatch(batch, 0, 2);
+            Assert.assertEquals(queue.drain(consumer, 1), 1);
+            expected += queue.offerBatch(batch, 2, 4);
+            Assert.assertTrue(queue.drain(consumer, 4) > 0);
+        }
+        queue.drain(consumer, capacity);
+        Assert.assertEquals(result.size(), expected);
+        Assert.assertTrue(queue.isEmpty(), queue.toString());
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testBatchesInConcurrentMode() throws InterruptedException {
+        final int inserts = Math.min(3, maxInserters());
+        final int batches = 10_000;
+        final int batchSize = 7;
+        final int getters = Math.min(3, maxGetters());
+        final ConcurrentArrayQueue<String> queue = createQueue(64, false);
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger finished = new AtomicInteger();
+
+        List<String> sourceValues = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < inserts; i++) {
+            final String[] values = new String[batches * batchSize];
+            for (int v = 0; v < values.length; v++) {
+                values[v] = "insert-thread-" + i + "-" + v;
+                sourceValues.add(values[v]);
+            }
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    int offered = 0;
+                    while (offered < values.length) {
+                        int to = Math.min(offered + batchSize, values.length);
+                        offered += queue.offerBatch(values, offered, to);
+                    }
+                    finished.incrementAndGet();
+                }
+            }));
+        }
+        for (int i = 0; i < getters; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    final List<String> local = new ArrayList<>();
+                    Consumer<String> consumer = new Consumer<String>() {
+                        @Override
+                        public void accept(String s) {
+                            local.add(s);
+                        }
+                    };
+                    while (finished.get() < inserts || !queue.isEmpty()) {
+                        if (queue.drain(consumer, batchSize) == 0) Thread.yield();
+                    }
+                    results.addAll(local);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(results.size(), sourceValues.size(), queue.toString());
+        Collections.sort(sourceValues);
+        Collections.sort(results);
+        Assert.assertEquals(results, sourceValues);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testSizeModes() {
+        ConcurrentArrayQueue<String> queue = createQueue(3, false);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(queue.approximateSize(Long.MAX_VALUE), 0);
+
+        Assert.assertTrue(queue.offer("A"));
+        Assert.assertTrue(queue.offer("B"));
+        Assert.assertFalse(queue.isEmpty());
+        Assert.assertEquals(queue.size(), 2);
+        //the cached value is not stale enough
+        Assert.assertEquals(queue.approximateSize(Long.MAX_VALUE), 0);
+        Assert.assertEquals(queue.approximateSize(0), 2);
+        Assert.assertEquals(queue.approximateSize(Long.MAX_VALUE), 2);
+
+        Assert.assertEquals(queue.poll(), "A");
+        Assert.assertEquals(queue.poll(), "B");
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(queue.size(), 0);
+        Assert.assertEquals(queue.approximateSize(0), 0);
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testSizeInConcurrentMode() throws InterruptedException {
+        final int attempts = 300_000;
+        final ConcurrentArrayQueue<String> queue = createQueue(10, false);
+        //a queue can round the capacity
+        final int capacity = queue.capacity();
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger wrongSizes = new AtomicInteger();
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < attempts; ) {
+                    if (queue.offer("e")) i++;
+                    else Thread.yield();
+                }
+                finished.incrementAndGet();
+            }
+        });
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < attempts; ) {
+                    if (queue.poll() != null) i++;
+                    else Thread.yield();
+                }
+                finished.incrementAndGet();
+            }
+        });
+        Thread monitor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                while (finished.get() < 2) {
+                    final int size = queue.size();
+                    final int approximate = queue.approximateSize();
+                    if (size < 0 || size > capacity || approximate < 0 || approximate > capacity) {
+                        wrongSizes.incrementAndGet();
+                    }
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        consumer.start();
+        monitor.start();
+        producer.join();
+        consumer.join();
+        monitor.join();
+        Assert.assertEquals(wrongSizes.get(), 0);
+        Assert.assertTrue(queue.isEmpty(), queue.toString());
+        Assert.assertEquals(queue.size(), 0);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testPeekAndIterator() {
+        ConcurrentArrayQueue<String> queue = createQueue(3, false);
+        Assert.assertNull(queue.peek());
+        Assert.assertFalse(queue.iterator().hasNext());
+
+        for (int i = 0; i < 10; i++) {
+            final String a = "A" + i;
+            final String b = "B" + i;
+            Assert.assertTrue(queue.offer(a));
+            Assert.assertTrue(queue.offer(b));
+            Assert.assertEquals(queue.peek(), a);
+            Assert.assertEquals(queue.peek(), a);
+            Assert.assertEquals(new ArrayList<>(queue), Arrays.asList(a, b));
+            Assert.assertTrue(queue.contains(b));
+
+            Assert.assertEquals(queue.poll(), a);
+            Assert.assertEquals(queue.peek(), b);
+            Assert.assertEquals(queue.toArray(), new Object[]{b});
+            Assert.assertEquals(queue.poll(), b);
+            Assert.assertNull(queue.peek());
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = UnsupportedOperationException.class)
+    public void testIteratorRemove() {
+        ConcurrentArrayQueue<String> queue = createQueue(3, false);
+        Assert.assertTrue(queue.offer("A"));
+        Iterator<String> iterator = queue.iterator();
+        Assert.assertEquals(iterator.next(), "A");
+        iterator.remove();
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testPeekInConcurrentMode() throws InterruptedException {
+        final int attempts = 300_000;
+        final ConcurrentArrayQueue<String> queue = createQueue(10, false);
+        final AtomicInteger finished = new AtomicInteger();
+        final AtomicInteger wrongPeeks = new AtomicInteger();
+
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < attempts; ) {
+                    if (queue.offer(String.format("%09d", i))) i++;
+                    else Thread.yield();
+                }
+                finished.incrementAndGet();
+            }
+        });
+        Thread consumer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < attempts; ) {
+                    if (queue.poll() != null) i++;
+                    else Thread.yield();
+                }
+                finished.incrementAndGet();
+            }
+        });
+        Thread peeker = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                //the elements are ordered, so the head element never decreases
+                String last = "";
+                while (finished.get() < 2) {
+                    final String head = queue.peek();
+                    if (head != null) {
+                        if (head.compareTo(last) < 0) wrongPeeks.incrementAndGet();
+                        last = head;
+                    }
+                    String previous = head != null ? head : last;
+                    for (String e : queue) {
+                        if (e.compareTo(previous) < 0) wrongPeeks.incrementAndGet();
+                        previous = e;
+                    }
+                    Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        consumer.start();
+        peeker.start();
+        producer.join();
+        consumer.join();
+        peeker.join();
+        Assert.assertEquals(wrongPeeks.get(), 0);
+        Assert.assertNull(queue.peek());
+    }
 }
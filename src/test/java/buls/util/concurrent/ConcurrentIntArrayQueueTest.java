@@ -0,0 +1,28 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import static buls.util.concurrent.BaseArrayQueueTest.SINGLE_THREAD;
+
+public class ConcurrentIntArrayQueueTest {
+
+    @Test(priority = SINGLE_THREAD)
+    public void testOrder() {
+        ConcurrentIntArrayQueue queue = new ConcurrentIntArrayQueue(2);
+        ConcurrentIntArrayQueue.Holder holder = new ConcurrentIntArrayQueue.Holder();
+
+        Assert.assertTrue(queue.offer(Integer.MIN_VALUE));
+        Assert.assertTrue(queue.offer(Integer.MAX_VALUE));
+        Assert.assertFalse(queue.offer(3));
+
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, Integer.MIN_VALUE);
+        Assert.assertTrue(queue.offer(3));
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, Integer.MAX_VALUE);
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, 3);
+        Assert.assertFalse(queue.poll(holder));
+    }
+}
@@ -0,0 +1,129 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static buls.util.concurrent.BaseArrayQueueTest.MULTI_THREADS;
+import static buls.util.concurrent.BaseArrayQueueTest.SINGLE_THREAD;
+
+public class ConcurrentLongArrayQueueTest {
+
+    @Test(priority = SINGLE_THREAD)
+    public void testOrder() {
+        ConcurrentLongArrayQueue queue = new ConcurrentLongArrayQueue(3);
+        ConcurrentLongArrayQueue.Holder holder = new ConcurrentLongArrayQueue.Holder();
+        Assert.assertFalse(queue.poll(holder));
+
+        Assert.assertTrue(queue.offer(Long.MIN_VALUE));
+        Assert.assertTrue(queue.offer(-1));
+        Assert.assertTrue(queue.offer(Long.MAX_VALUE));
+        Assert.assertFalse(queue.offer(4));
+        Assert.assertEquals(queue.size(), 3);
+
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, Long.MIN_VALUE);
+        Assert.assertTrue(queue.offer(4));
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, -1);
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, Long.MAX_VALUE);
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, 4);
+        Assert.assertFalse(queue.poll(holder));
+        Assert.assertEquals(holder.value, 4);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testZeroCapacity() {
+        ConcurrentLongArrayQueue queue = new ConcurrentLongArrayQueue(0);
+        Assert.assertFalse(queue.offer(1));
+        Assert.assertFalse(queue.poll(new ConcurrentLongArrayQueue.Holder()));
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testRounds() {
+        ConcurrentLongArrayQueue queue = new ConcurrentLongArrayQueue(2);
+        ConcurrentLongArrayQueue.Holder holder = new ConcurrentLongArrayQueue.Holder();
+        for (long i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.offer(i));
+            Assert.assertTrue(queue.poll(holder));
+            Assert.assertEquals(holder.value, i);
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testLockedTailIsPassed() {
+        ConcurrentLongArrayQueue queue = new ConcurrentLongArrayQueue(3);
+        ConcurrentLongArrayQueue.Holder holder = new ConcurrentLongArrayQueue.Holder();
+        final long tail = queue.lockTail();
+        Assert.assertEquals(tail, 0);
+
+        //the producer of the locked cell stalls, the next producer locks the next cell
+        Assert.assertTrue(queue.offer(7));
+        Assert.assertEquals(queue.size(), 2);
+
+        queue.releaseTail(tail);
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, 0);
+        Assert.assertTrue(queue.poll(holder));
+        Assert.assertEquals(holder.value, 7);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testInsertAnGetsInConcurrentMode() throws InterruptedException {
+        final int inserts = 3;
+        final int attemptsPerInsert = 300_000;
+        final int getters = 3;
+        final ConcurrentLongArrayQueue queue = new ConcurrentLongArrayQueue(10);
+        final AtomicLong sum = new AtomicLong();
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+
+        Thread[] threads = new Thread[inserts + getters];
+        for (int i = 0; i < inserts; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (long value = 1; value <= attemptsPerInsert; ) {
+                        if (queue.offer(value)) value++;
+                        else Thread.yield();
+                    }
+                    finished.incrementAndGet();
+                }
+            });
+        }
+        for (int i = inserts; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    ConcurrentLongArrayQueue.Holder holder = new ConcurrentLongArrayQueue.Holder();
+                    long localSum = 0;
+                    int localCount = 0;
+                    while (finished.get() < inserts || !queue.isEmpty()) {
+                        if (queue.poll(holder)) {
+                            localSum += holder.value;
+                            localCount++;
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                    sum.addAndGet(localSum);
+                    count.addAndGet(localCount);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(count.get(), inserts * attemptsPerInsert, queue.toString());
+        Assert.assertEquals(sum.get(), inserts * (long) attemptsPerInsert * (attemptsPerInsert + 1) / 2);
+    }
+}
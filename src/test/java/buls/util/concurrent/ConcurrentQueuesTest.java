@@ -0,0 +1,16 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ConcurrentQueuesTest {
+
+    @Test
+    public void testNewArrayQueue() {
+        Assert.assertEquals(ConcurrentQueues.newArrayQueue(8, true, true).getClass(), SpscArrayQueue.class);
+        Assert.assertEquals(ConcurrentQueues.newArrayQueue(8, false, true).getClass(), MpscArrayQueue.class);
+        Assert.assertEquals(ConcurrentQueues.newArrayQueue(8, true, false).getClass(), SpmcArrayQueue.class);
+        Assert.assertEquals(ConcurrentQueues.newArrayQueue(8, false, false).getClass(), ConcurrentArrayQueue.class);
+        Assert.assertEquals(ConcurrentQueues.newArrayQueue(8).getClass(), ConcurrentArrayQueue.class);
+    }
+}
@@ -0,0 +1,62 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The inherited tests do not depend on the order of concurrently offered elements,
+ * a single thread never visits the arena
+ */
+public class EliminationConcurrentArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new EliminationConcurrentArrayQueue<>(capacity, true, 2);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testExchangeWithoutConsumer() {
+        EliminationConcurrentArrayQueue<String> queue = new EliminationConcurrentArrayQueue<>(4, 1);
+        Assert.assertFalse(queue.exchangeOffer("Раз"));
+        Assert.assertNull(queue.exchangePoll());
+        Assert.assertEquals(queue.exchanges(), 0);
+    }
+
+    @Test(priority = MULTI_THREADS, timeOut = 10_000)
+    public void testExchange() throws InterruptedException {
+        final EliminationConcurrentArrayQueue<String> queue = new EliminationConcurrentArrayQueue<>(4, 1);
+        final AtomicBoolean exchanged = new AtomicBoolean();
+        Thread producer = new Thread(() -> {
+            //the producer is parked until the consumer takes the element, the only slot is free
+            exchanged.set(queue.exchangeOffer("Раз", Integer.MAX_VALUE));
+        }, "exchange-producer");
+        producer.setDaemon(true);
+        producer.start();
+
+        String e;
+        while ((e = queue.exchangePoll()) == null) Thread.yield();
+        producer.join();
+
+        Assert.assertEquals(e, "Раз");
+        Assert.assertTrue(exchanged.get());
+        Assert.assertEquals(queue.exchanges(), 1);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.exchangePoll());
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testBackoff() {
+        BackoffStrategy backoff = BackoffStrategies.exponential();
+        EliminationConcurrentArrayQueue<String> queue = new EliminationConcurrentArrayQueue<>(4, false, 1, backoff);
+        Assert.assertSame(queue.backoff(), backoff);
+        Assert.assertTrue(queue.offer("Раз"));
+        Assert.assertEquals(queue.poll(), "Раз");
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testWrongArenaSize() {
+        new EliminationConcurrentArrayQueue<String>(4, 0);
+    }
+}
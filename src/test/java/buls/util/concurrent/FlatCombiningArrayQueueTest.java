@@ -0,0 +1,57 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class FlatCombiningArrayQueueTest extends BaseArrayQueueTest {
+
+    @Override
+    protected FlatCombiningArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new FlatCombiningArrayQueue<>(capacity, 2);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testPeekAndIterator() {
+        FlatCombiningArrayQueue<String> queue = createQueue(3, false);
+        Assert.assertNull(queue.peek());
+        Assert.assertFalse(queue.iterator().hasNext());
+
+        for (int round = 0; round < 3; round++) {
+            Assert.assertTrue(queue.offer("Раз"));
+            Assert.assertTrue(queue.offer("Два"));
+            Assert.assertTrue(queue.offer("Три"));
+            Assert.assertFalse(queue.offer("Четыре"));
+            Assert.assertEquals(queue.peek(), "Раз");
+
+            List<String> elements = new ArrayList<>();
+            queue.iterator().forEachRemaining(elements::add);
+            Assert.assertEquals(elements, Arrays.asList("Раз", "Два", "Три"));
+
+            Assert.assertEquals(queue.poll(), "Раз");
+            Assert.assertEquals(queue.poll(), "Два");
+            Assert.assertEquals(queue.poll(), "Три");
+            Assert.assertNull(queue.poll());
+            Assert.assertTrue(queue.isEmpty());
+        }
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testMoreThreadsThanSlots() {
+        int inserts = Math.min(4, maxInserters());
+        int getters = Math.min(4, maxGetters());
+        int attemptsPerInsert = 100_000;
+        FlatCombiningArrayQueue<String> queue = new FlatCombiningArrayQueue<>(16, 1);
+        testQueueConcurrently(queue, inserts, attemptsPerInsert, getters, "testMoreThreadsThanSlots",
+                inserts * attemptsPerInsert * 3, getters * attemptsPerInsert * 3);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testWrongSlots() {
+        new FlatCombiningArrayQueue<String>(4, 0);
+    }
+}
@@ -0,0 +1,88 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Queue;
+
+/**
+ * Base queue tests where the capacity is the max capacity of a growable queue
+ */
+public class GrowableConcurrentArrayQueueTest extends BaseArrayQueueTest {
+
+    @Override
+    protected Queue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new GrowableConcurrentArrayQueue<>(Math.min(capacity, 4), capacity);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testGrowth() {
+        GrowableConcurrentArrayQueue<String> queue = new GrowableConcurrentArrayQueue<>(4, 100);
+        Assert.assertEquals(queue.allocatedCapacity(), 4);
+
+        int offered = 0;
+        while (queue.offer("e" + offered)) offered++;
+        Assert.assertEquals(offered, 100);
+        Assert.assertEquals(queue.size(), 100);
+        //4, then 8, 16, 32 and the rest, nothing is retrieved
+        Assert.assertEquals(queue.allocatedCapacity(), 100);
+        Assert.assertEquals(queue.chunks(), 5);
+
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals(queue.poll(), "e" + i);
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.offer("next"));
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testGrowthAfterSingleFullChunk() {
+        GrowableConcurrentArrayQueue<String> queue = new GrowableConcurrentArrayQueue<>(8, 64);
+        for (int i = 0; i < 9; i++) {
+            Assert.assertTrue(queue.offer("e" + i));
+        }
+        //the only chunk was full when it was exhausted
+        Assert.assertEquals(queue.chunks(), 2);
+        Assert.assertEquals(queue.allocatedCapacity(), 24);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testShrink() {
+        GrowableConcurrentArrayQueue<String> queue = new GrowableConcurrentArrayQueue<>(2, 64);
+        for (int i = 0; i < 30; i++) {
+            Assert.assertTrue(queue.offer("e" + i));
+        }
+        Assert.assertTrue(queue.allocatedCapacity() >= 30);
+
+        //a consumer keeps up, the chunks return to the initial capacity
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.offer("a" + i));
+            Assert.assertNotNull(queue.poll());
+        }
+        while (queue.poll() != null) ;
+        for (int i = 0; i < 100; i++) {
+            Assert.assertTrue(queue.offer("b" + i));
+            Assert.assertEquals(queue.poll(), "b" + i);
+        }
+        Assert.assertEquals(queue.chunks(), 1);
+        Assert.assertEquals(queue.allocatedCapacity(), 2);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testMaxCapacityAfterPartialDrain() {
+        GrowableConcurrentArrayQueue<String> queue = new GrowableConcurrentArrayQueue<>(3, 10);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(queue.offer("e" + i));
+        }
+        Assert.assertFalse(queue.offer("full"));
+        Assert.assertEquals(queue.poll(), "e0");
+        Assert.assertTrue(queue.offer("e10"));
+        Assert.assertFalse(queue.offer("full"));
+        Assert.assertEquals(queue.size(), 10);
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testWrongCapacities() {
+        new GrowableConcurrentArrayQueue<String>(8, 4);
+    }
+}
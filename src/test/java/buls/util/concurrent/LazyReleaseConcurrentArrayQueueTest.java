@@ -0,0 +1,25 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Base and overflow queue tests where locked cells are released by a release store
+ */
+public class LazyReleaseConcurrentArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new ConcurrentArrayQueue<>(capacity, true, 1, true);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testReleasedLevels() {
+        ConcurrentArrayQueue<String> queue = createQueue(2, false);
+        Assert.assertTrue(queue.isLazyRelease());
+        Assert.assertTrue(queue.offer("A"));
+        Assert.assertEquals(queue._level(0), queue.getLevelAfterSet(0));
+        Assert.assertEquals(queue.poll(), "A");
+        Assert.assertEquals(queue._level(0), queue.afterGetLevel(0));
+    }
+}
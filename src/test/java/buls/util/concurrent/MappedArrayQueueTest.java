@@ -0,0 +1,172 @@
+package buls.util.concurrent;
+
+import buls.util.concurrent.OffHeapArrayQueueTest.Record;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static buls.util.concurrent.BaseArrayQueueTest.MULTI_THREADS;
+import static buls.util.concurrent.BaseArrayQueueTest.SINGLE_THREAD;
+
+public class MappedArrayQueueTest {
+
+    private static final int WRITERS = 3;
+    private static final long WRITER_IDS = 1_000_000_000L;
+
+    @Test(priority = SINGLE_THREAD)
+    public void testReopen() throws IOException {
+        File file = createFile();
+        MappedArrayQueue queue = new MappedArrayQueue(file, 3, Record.SIZE);
+        Record record = new Record();
+        Assert.assertTrue(queue.offer(record.set(1, -1)));
+        Assert.assertTrue(queue.offer(record.set(2, -2)));
+        Assert.assertTrue(queue.offer(record.set(3, -3)));
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 1);
+
+        queue = new MappedArrayQueue(file, 3, Record.SIZE);
+        Assert.assertEquals(queue.discarded(), 0);
+        Assert.assertEquals(queue.size(), 2);
+        Assert.assertTrue(queue.offer(record.set(4, -4)));
+        Assert.assertFalse(queue.offer(record.set(5, -5)));
+        for (int id = 2; id <= 4; id++) {
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, id);
+        }
+        Assert.assertFalse(queue.poll(record));
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalStateException.class)
+    public void testAnotherCapacity() throws IOException {
+        File file = createFile();
+        new MappedArrayQueue(file, 3, Record.SIZE);
+        new MappedArrayQueue(file, 4, Record.SIZE);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testRecoverKilledProducers() throws IOException {
+        File file = createFile();
+        MappedArrayQueue queue = new MappedArrayQueue(file, 4, Record.SIZE);
+        Record record = new Record();
+        Assert.assertTrue(queue.offer(record.set(1, -1)));
+        //killed producers claim positions and do not publish records
+        Assert.assertTrue(queue.claimTail() >= 0);
+        Assert.assertTrue(queue.offer(record.set(2, -2)));
+        Assert.assertTrue(queue.claimTail() >= 0);
+        Assert.assertEquals(queue.size(), 4);
+
+        queue = new MappedArrayQueue(file, 4, Record.SIZE);
+        Assert.assertEquals(queue.discarded(), 2);
+        Assert.assertEquals(queue.size(), 2);
+        assertRounds(queue, 1, 2);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testRecoverKilledConsumer() throws IOException {
+        File file = createFile();
+        MappedArrayQueue queue = new MappedArrayQueue(file, 2, Record.SIZE);
+        Record record = new Record();
+        Assert.assertTrue(queue.offer(record.set(1, -1)));
+        Assert.assertTrue(queue.offer(record.set(2, -2)));
+        //a killed consumer claims the position and does not free the cell
+        Assert.assertTrue(queue.claimHead() >= 0);
+
+        queue = new MappedArrayQueue(file, 2, Record.SIZE);
+        Assert.assertEquals(queue.discarded(), 0);
+        Assert.assertEquals(queue.size(), 1);
+        assertRounds(queue, 2);
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testRecoverKilledWriters() throws Exception {
+        final int capacity = 100_000;
+        File file = createFile();
+        MappedArrayQueue queue = new MappedArrayQueue(file, capacity, Record.SIZE);
+
+        Process process = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"), Writer.class.getName(),
+                file.getPath(), Integer.toString(capacity))
+                .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.INHERIT).start();
+        try {
+            //the writers are killed in the middle of their batches
+            final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+            while (queue.size() < capacity / 2 && System.currentTimeMillis() < deadline) {
+                Assert.assertTrue(process.isAlive(), "writers have exited");
+                Thread.sleep(1);
+            }
+        } finally {
+            process.destroyForcibly().waitFor();
+        }
+        Assert.assertTrue(queue.size() >= capacity / 2, "writers are too slow");
+
+        queue = new MappedArrayQueue(file, capacity, Record.SIZE);
+        //each writer has one claimed position at most
+        Assert.assertTrue(queue.discarded() <= WRITERS, "discarded " + queue.discarded());
+
+        long[] last = new long[WRITERS];
+        Record record = new Record();
+        int count = 0;
+        while (queue.poll(record)) {
+            Assert.assertEquals(record.value, (int) -record.id, "torn record " + record.id);
+            final int writer = (int) (record.id / WRITER_IDS);
+            final long sequence = record.id % WRITER_IDS;
+            Assert.assertEquals(sequence, last[writer] + 1, "writer " + writer);
+            last[writer] = sequence;
+            count++;
+        }
+        Assert.assertEquals(count, last[0] + last[1] + last[2]);
+        Assert.assertTrue(count >= capacity / 2 - WRITERS, "count " + count);
+        assertRounds(queue);
+    }
+
+    private static void assertRounds(MappedArrayQueue queue, long... ids) {
+        Record record = new Record();
+        for (long id : ids) {
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, id);
+        }
+        Assert.assertFalse(queue.poll(record));
+        for (int i = 0; i < queue.capacity() * 3; i++) {
+            Assert.assertTrue(queue.offer(record.set(i, -i)));
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, i);
+        }
+    }
+
+    private static void assertRecord(Record record, long id) {
+        Assert.assertEquals(record.id, id);
+        Assert.assertEquals(record.value, (int) -id);
+    }
+
+    private static File createFile() throws IOException {
+        File file = File.createTempFile("mapped-queue", ".dat");
+        file.deleteOnExit();
+        Assert.assertTrue(file.delete());
+        return file;
+    }
+
+    /**
+     * offers records of several threads until it is killed, a record's id is the writer number and the sequence
+     */
+    public static final class Writer {
+        public static void main(String[] args) throws IOException {
+            final MappedArrayQueue queue = new MappedArrayQueue(new File(args[0]), Integer.parseInt(args[1]), Record.SIZE);
+            for (int i = 0; i < WRITERS; i++) {
+                final long first = i * WRITER_IDS;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Record record = new Record();
+                        for (long id = first + 1; ; ) {
+                            if (queue.offer(record.set(id, (int) -id))) id++;
+                            else Thread.yield();
+                        }
+                    }
+                }).start();
+            }
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * The overflow tests are inherited, the monotonic queue passes the former wrap boundary without resetting counters.
+ * The soak length is set by the soak.iterations system property (offers per inserter).
+ */
+public class MonotonicConcurrentArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    private static final int SOAK_ITERATIONS = Integer.getInteger("soak.iterations", 500_000);
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new MonotonicConcurrentArrayQueue<>(capacity, true);
+    }
+
+    @Test(priority = OVERFLOW_SINGLE)
+    public void testCountersPassMaxSequenceValue() {
+        ConcurrentArrayQueue<String> queue = createQueue(3, false);
+        long tail = boundaryTail(queue, queue.max_sequence_value(), 1);
+        initQueueOverflow(queue, queue.capacity(), tail);
+
+        char c = 'A';
+        for (int i = 0; i < queue.capacity() * 3; i++) {
+            Assert.assertTrue(queue.offer(String.valueOf(c)));
+            Assert.assertEquals(queue.poll(), String.valueOf(c++));
+        }
+
+        final long expected = tail + queue.capacity() * 3;
+        Assert.assertEquals(queue.getTail(), expected);
+        Assert.assertEquals(queue.getHead(), expected);
+        Assert.assertTrue(expected > queue.max_sequence_value() + 1L);
+
+        for (int i = 0; i < queue.capacity(); i++) {
+            Assert.assertTrue(queue.offer(String.valueOf(c++)));
+        }
+        Assert.assertFalse(queue.offer("Z"));
+        Assert.assertEquals(queue.size(), queue.capacity());
+        Assert.assertEquals(queue.poll(), String.valueOf((char) (c - queue.capacity())));
+    }
+
+    @Test(priority = OVERFLOW_MULTI)
+    public void testSoakAcrossIntegerMaxValue() {
+        soak(Integer.MAX_VALUE, "testSoakAcrossIntegerMaxValue");
+    }
+
+    @Test(priority = OVERFLOW_MULTI)
+    public void testSoakAcrossUnsignedIntMaxValue() {
+        soak(1L << 32, "testSoakAcrossUnsignedIntMaxValue");
+    }
+
+    private void soak(long boundary, String testName) {
+        int inserts = Math.min(2, maxInserters());
+        int getters = Math.min(2, maxGetters());
+
+        final ConcurrentArrayQueue<String> queue = createQueue(10, WRITE_STATISTIC);
+        long tail = boundaryTail(queue, boundary, 4);
+        initQueueOverflow(queue, queue.capacity(), tail);
+
+        testQueueConcurrently(queue, inserts, SOAK_ITERATIONS, getters, testName,
+                (int) (inserts * SOAK_ITERATIONS * 3L), (int) (getters * SOAK_ITERATIONS * 3L));
+
+        Assert.assertTrue(queue.getTail() > boundary);
+        Assert.assertEquals(queue.getHead(), queue.getTail());
+    }
+
+    /**
+     * @return the first counter of the round which is the given amount of rounds before the boundary
+     */
+    private static long boundaryTail(ConcurrentArrayQueue<String> queue, long boundary, int rounds) {
+        final int capacity = queue.capacity();
+        return boundary - (boundary % capacity) - (long) capacity * rounds;
+    }
+}
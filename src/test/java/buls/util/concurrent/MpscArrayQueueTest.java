@@ -0,0 +1,28 @@
+package buls.util.concurrent;
+
+import org.testng.annotations.Test;
+
+/**
+ * Concurrent array queue tests with one getter
+ */
+public class MpscArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new MpscArrayQueue<>(capacity, true);
+    }
+
+    @Override
+    protected int maxGetters() {
+        return 1;
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testManyInsertersInConcurrentMode() {
+        int inserts = 5;
+        int attemptsPerInsert = 100_000;
+        int getters = 1;
+        testQueueConcurrently(createQueue(10, WRITE_STATISTIC), inserts, attemptsPerInsert, getters,
+                "testManyInsertersInConcurrentMode", THRESHOLD * 2, THRESHOLD * 2);
+    }
+}
@@ -0,0 +1,185 @@
+package buls.util.concurrent;
+
+import org.jetbrains.annotations.NotNull;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static buls.util.concurrent.BaseArrayQueueTest.MULTI_THREADS;
+import static buls.util.concurrent.BaseArrayQueueTest.SINGLE_THREAD;
+
+public class OffHeapArrayQueueTest {
+
+    @Test(priority = SINGLE_THREAD)
+    public void testOrder() {
+        OffHeapArrayQueue queue = new OffHeapArrayQueue(3, Record.SIZE);
+        Record record = new Record();
+        Assert.assertFalse(queue.poll(record));
+
+        Assert.assertTrue(queue.offer(record.set(1, -1)));
+        Assert.assertTrue(queue.offer(record.set(Long.MAX_VALUE, Integer.MIN_VALUE)));
+        Assert.assertTrue(queue.offer(record.set(3, 3)));
+        Assert.assertFalse(queue.offer(record.set(4, 4)));
+        Assert.assertEquals(queue.size(), 3);
+
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 1, -1);
+        Assert.assertTrue(queue.offer(record.set(4, 4)));
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, Long.MAX_VALUE, Integer.MIN_VALUE);
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 3, 3);
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 4, 4);
+        Assert.assertFalse(queue.poll(record));
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testZeroCapacity() {
+        OffHeapArrayQueue queue = new OffHeapArrayQueue(0, Record.SIZE);
+        Record record = new Record();
+        Assert.assertFalse(queue.offer(record.set(1, 1)));
+        Assert.assertFalse(queue.poll(record));
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testRounds() {
+        OffHeapArrayQueue queue = new OffHeapArrayQueue(2, Record.SIZE);
+        Record record = new Record();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.offer(record.set(i, i)));
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, i, i);
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testFailedEncoder() {
+        OffHeapArrayQueue queue = new OffHeapArrayQueue(2, Record.SIZE);
+        Record record = new Record();
+        Assert.assertTrue(queue.offer(record.set(1, 1)));
+        try {
+            queue.offer((buffer, offset) -> {
+                buffer.putLong(offset, 2);
+                throw new IllegalStateException("encoder");
+            });
+            Assert.fail();
+        } catch (IllegalStateException e) {
+            Assert.assertEquals(e.getMessage(), "encoder");
+        }
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 1, 1);
+        //the aborted position is skipped
+        Assert.assertTrue(queue.offer(record.set(3, 3)));
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 3, 3);
+        Assert.assertFalse(queue.poll(record));
+        Assert.assertTrue(queue.isEmpty());
+
+        for (int i = 4; i < 10; i++) {
+            Assert.assertTrue(queue.offer(record.set(i, i)));
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, i, i);
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testHeapBuffer() {
+        new OffHeapArrayQueue(ByteBuffer.allocate(OffHeapArrayQueue.bufferSize(2, Record.SIZE)), 2, Record.SIZE, true);
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testTooLarge() {
+        OffHeapArrayQueue.bufferSize(Integer.MAX_VALUE, Record.SIZE);
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testInsertAnGetsInConcurrentMode() throws InterruptedException {
+        final int inserts = 3;
+        final int attemptsPerInsert = 200_000;
+        final int getters = 3;
+        final OffHeapArrayQueue queue = new OffHeapArrayQueue(10, Record.SIZE);
+        final AtomicLong sum = new AtomicLong();
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicInteger finished = new AtomicInteger();
+
+        Thread[] threads = new Thread[inserts + getters];
+        for (int i = 0; i < inserts; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Record record = new Record();
+                    for (int value = 1; value <= attemptsPerInsert; ) {
+                        if (queue.offer(record.set(value, -value))) value++;
+                        else Thread.yield();
+                    }
+                    finished.incrementAndGet();
+                }
+            });
+        }
+        for (int i = inserts; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Record record = new Record();
+                    long localSum = 0;
+                    int localCount = 0;
+                    while (finished.get() < inserts || !queue.isEmpty()) {
+                        if (queue.poll(record)) {
+                            //a torn record would break the pair
+                            Assert.assertEquals(record.value, -record.id);
+                            localSum += record.id;
+                            localCount++;
+                        } else {
+                            Thread.yield();
+                        }
+                    }
+                    sum.addAndGet(localSum);
+                    count.addAndGet(localCount);
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(count.get(), inserts * attemptsPerInsert, queue.toString());
+        Assert.assertEquals(sum.get(), inserts * (long) attemptsPerInsert * (attemptsPerInsert + 1) / 2);
+    }
+
+    private static void assertRecord(Record record, long id, int value) {
+        Assert.assertEquals(record.id, id);
+        Assert.assertEquals(record.value, value);
+    }
+
+    static final class Record implements RecordEncoder, RecordDecoder {
+        static final int SIZE = 12;
+
+        long id;
+        int value;
+
+        Record set(long id, int value) {
+            this.id = id;
+            this.value = value;
+            return this;
+        }
+
+        @Override
+        public void encode(@NotNull ByteBuffer buffer, int offset) {
+            buffer.putLong(offset, id);
+            buffer.putInt(offset + 8, value);
+        }
+
+        @Override
+        public void decode(@NotNull ByteBuffer buffer, int offset) {
+            id = buffer.getLong(offset);
+            value = buffer.getInt(offset + 8);
+        }
+    }
+}
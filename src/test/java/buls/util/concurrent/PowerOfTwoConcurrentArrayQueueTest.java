@@ -0,0 +1,45 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * The overflow tests are inherited, the power of two queue resets counters after {@link Integer#MAX_VALUE}
+ */
+public class PowerOfTwoConcurrentArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new PowerOfTwoConcurrentArrayQueue<>(capacity, true);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testCapacityRounding() {
+        Assert.assertEquals(createQueue(0, false).capacity(), 0);
+        Assert.assertEquals(createQueue(1, false).capacity(), 1);
+        Assert.assertEquals(createQueue(2, false).capacity(), 2);
+        Assert.assertEquals(createQueue(3, false).capacity(), 4);
+        Assert.assertEquals(createQueue(10_000, false).capacity(), 16_384);
+        Assert.assertEquals(createQueue(1 << 20, false).capacity(), 1 << 20);
+
+        Assert.assertEquals(createQueue(3, false).max_sequence_value(), Integer.MAX_VALUE);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testRoundedCapacityIsUsed() {
+        ConcurrentArrayQueue<String> queue = createQueue(3, false);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertTrue(queue.offer("Раз" + i));
+        }
+        Assert.assertFalse(queue.offer("Пять"));
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(queue.poll(), "Раз" + i);
+        }
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testTooLargeCapacity() {
+        PowerOfTwoConcurrentArrayQueue.roundToPowerOfTwo(PowerOfTwoConcurrentArrayQueue.MAX_CAPACITY + 1);
+    }
+}
@@ -0,0 +1,121 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The inherited tests use one priority
+ */
+public class PriorityConcurrentArrayQueueTest extends BaseArrayQueueTest {
+
+    @Override
+    protected PriorityConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new PriorityConcurrentArrayQueue<>(1, capacity);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testPriorityOrder() {
+        PriorityConcurrentArrayQueue<String> queue = new PriorityConcurrentArrayQueue<>(4, 2,
+                e -> e.charAt(0) - '0');
+        Assert.assertTrue(queue.offer("3a"));
+        Assert.assertTrue(queue.offer("1a"));
+        Assert.assertTrue(queue.offer("3b"));
+        Assert.assertTrue(queue.offer("0a"));
+        Assert.assertTrue(queue.offer("1b"));
+        Assert.assertFalse(queue.offer("1c"));
+        Assert.assertTrue(queue.offer("2a"));
+
+        Assert.assertEquals(queue.size(), 6);
+        Assert.assertEquals(queue.size(1), 2);
+        Assert.assertEquals(queue.peek(), "0a");
+
+        List<String> iterated = new ArrayList<>();
+        queue.iterator().forEachRemaining(iterated::add);
+        Assert.assertEquals(iterated, Arrays.asList("0a", "1a", "1b", "2a", "3a", "3b"));
+
+        Assert.assertEquals(queue.poll(), "0a");
+        Assert.assertEquals(queue.poll(), "1a");
+        Assert.assertTrue(queue.offer("0b"));
+        Assert.assertEquals(queue.poll(), "0b");
+        Assert.assertEquals(queue.poll(), "1b");
+        Assert.assertEquals(queue.poll(), "2a");
+        Assert.assertEquals(queue.poll(), "3a");
+        Assert.assertEquals(queue.poll(), "3b");
+        Assert.assertNull(queue.poll());
+        Assert.assertNull(queue.peek());
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(queue.toString().split("\n")[0], "non-empty: 0");
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testDefaultPriority() {
+        PriorityConcurrentArrayQueue<String> queue = new PriorityConcurrentArrayQueue<>(8, 1);
+        Assert.assertTrue(queue.offer("Раз"));
+        Assert.assertTrue(queue.offer("Два", 0));
+        Assert.assertEquals(queue.size(7), 1);
+        Assert.assertEquals(queue.poll(), "Два");
+        Assert.assertEquals(queue.poll(), "Раз");
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testWrongPriority() {
+        new PriorityConcurrentArrayQueue<String>(4, 1).offer("Раз", 4);
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testTooManyPriorities() {
+        new PriorityConcurrentArrayQueue<String>(PriorityConcurrentArrayQueue.MAX_PRIORITIES + 1, 1);
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testPrioritiesInConcurrentMode() throws InterruptedException {
+        final int priorities = 8;
+        final int producers = 4;
+        final int perProducer = 50_000;
+        final PriorityConcurrentArrayQueue<Integer> queue = new PriorityConcurrentArrayQueue<>(priorities, 64,
+                e -> e % priorities);
+        final AtomicInteger polled = new AtomicInteger();
+        final long[] sums = new long[2];
+        final CountDownLatch done = new CountDownLatch(producers);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            final int first = p * perProducer;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!queue.offer(i)) Thread.yield();
+                }
+                done.countDown();
+            }, "priority-producer-" + p));
+        }
+        for (int c = 0; c < 2; c++) {
+            final int consumer = c;
+            threads.add(new Thread(() -> {
+                long sum = 0;
+                while (polled.get() < producers * perProducer) {
+                    Integer e = queue.poll();
+                    if (e == null) {
+                        Thread.yield();
+                    } else {
+                        sum += e;
+                        polled.incrementAndGet();
+                    }
+                }
+                sums[consumer] = sum;
+            }, "priority-consumer-" + c));
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        final long n = (long) producers * perProducer;
+        Assert.assertEquals(sums[0] + sums[1], n * (n - 1) / 2);
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertNull(queue.poll());
+    }
+}
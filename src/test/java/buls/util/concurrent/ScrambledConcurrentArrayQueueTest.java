@@ -0,0 +1,41 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.BitSet;
+
+/**
+ * Base queue tests with scrambled cells placement
+ */
+public class ScrambledConcurrentArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new ScrambledConcurrentArrayQueue<>(capacity, true);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testIndexesArePermutation() {
+        for (int capacity : new int[]{1, 15, 16, 17, 100, 1000, 1024}) {
+            ConcurrentArrayQueue<String> queue = createQueue(capacity, false);
+            BitSet indexes = new BitSet(capacity);
+            for (int counter = 0; counter < capacity; counter++) {
+                int index = queue.computeIndex(counter);
+                Assert.assertTrue(index >= 0 && index < capacity, capacity + " " + index);
+                Assert.assertFalse(indexes.get(index), capacity + " " + index);
+                indexes.set(index);
+            }
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testNeighboursAreDistant() {
+        ConcurrentArrayQueue<String> queue = createQueue(1000, false);
+        for (int counter = 1; counter < 992; counter++) {
+            if (counter % 62 == 0) continue;
+            int distance = queue.computeIndex(counter) - queue.computeIndex(counter - 1);
+            Assert.assertEquals(distance, ScrambledConcurrentArrayQueue.SCRAMBLE_STRIDE, "counter " + counter);
+        }
+    }
+}
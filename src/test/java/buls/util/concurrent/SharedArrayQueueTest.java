@@ -0,0 +1,289 @@
+package buls.util.concurrent;
+
+import buls.util.concurrent.OffHeapArrayQueueTest.Record;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static buls.util.concurrent.BaseArrayQueueTest.MULTI_THREADS;
+import static buls.util.concurrent.BaseArrayQueueTest.SINGLE_THREAD;
+
+public class SharedArrayQueueTest {
+
+    private static final int WRITERS = 3;
+    private static final long WRITER_IDS = 1_000_000_000L;
+    private static final long LEASE = TimeUnit.MILLISECONDS.toNanos(100);
+
+    @Test(priority = SINGLE_THREAD)
+    public void testAttach() throws IOException {
+        File file = createFile();
+        SharedArrayQueue producer = new SharedArrayQueue(file, 2, Record.SIZE);
+        Record record = new Record();
+        Assert.assertTrue(producer.offer(record.set(1, -1)));
+
+        SharedArrayQueue consumer = new SharedArrayQueue(file, 2, Record.SIZE);
+        Assert.assertEquals(consumer.size(), 1);
+        for (int i = 2; i < 10; i++) {
+            Assert.assertTrue(producer.offer(record.set(i, -i)));
+            Assert.assertTrue(consumer.poll(record));
+            assertRecord(record, i - 1);
+        }
+        Assert.assertTrue(consumer.poll(record));
+        assertRecord(record, 9);
+        Assert.assertFalse(consumer.poll(record));
+        Assert.assertTrue(producer.isEmpty());
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testDropPutting() throws IOException {
+        File file = createFile();
+        SharedArrayQueue queue = new SharedArrayQueue(file, 3, Record.SIZE, LEASE);
+        Record record = new Record();
+        //a killed producer holds the putting cell
+        final long putting = queue.claimTail();
+        Assert.assertEquals(queue.getLevel(putting), SharedArrayQueue.putting(0));
+        Assert.assertTrue(queue.offer(record.set(2, -2)));
+
+        final long start = System.nanoTime();
+        Assert.assertTrue(queue.poll(record));
+        Assert.assertTrue(System.nanoTime() - start >= LEASE);
+        assertRecord(record, 2);
+        Assert.assertFalse(queue.poll(record));
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(queue.offer(record.set(i, -i)));
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, i);
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD, timeOut = 10_000)
+    public void testKilledConsumer() throws IOException {
+        File file = createFile();
+        SharedArrayQueue queue = new SharedArrayQueue(file, 2, Record.SIZE, LEASE);
+        Record record = new Record();
+        Assert.assertTrue(queue.offer(record.set(1, -1)));
+        //a killed consumer holds the filled cell of the first round
+        final long claimed = queue.claimHead();
+        Assert.assertEquals(queue.getLevel(claimed), 1);
+        Assert.assertTrue(queue.offer(record.set(2, -2)));
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 2);
+
+        //the producer of the next round frees the cell after the lease
+        final long start = System.nanoTime();
+        Assert.assertTrue(queue.offer(record.set(3, -3)));
+        Assert.assertTrue(System.nanoTime() - start >= LEASE);
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 3);
+        Assert.assertFalse(queue.poll(record));
+
+        //the late consumer sees that the cell is freed
+        queue.releaseHead(claimed);
+        for (int i = 4; i < 10; i++) {
+            Assert.assertTrue(queue.offer(record.set(i, -i)));
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, i);
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testLateProducer() throws IOException {
+        File file = createFile();
+        SharedArrayQueue queue = new SharedArrayQueue(file, 2, Record.SIZE, LEASE);
+        Record record = new Record();
+        final long late = queue.claimTail();
+        Assert.assertTrue(queue.offer(record.set(2, -2)));
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 2);
+
+        //the position is dropped, the record is offered again
+        Assert.assertFalse(queue.publishTail(late));
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertTrue(queue.offer(record.set(1, -1)));
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 1);
+    }
+
+    @Test(priority = MULTI_THREADS, timeOut = 10_000)
+    public void testStalledProducer() throws Exception {
+        File file = createFile();
+        SharedArrayQueue queue = new SharedArrayQueue(file, 2, Record.SIZE, LEASE);
+        CountDownLatch encoding = new CountDownLatch(1);
+        CountDownLatch resume = new CountDownLatch(1);
+        Thread producer = new Thread(() -> queue.offer((buffer, offset) -> {
+            encoding.countDown();
+            try {
+                resume.await();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            buffer.putLong(offset, 111);
+            buffer.putInt(offset + 8, -111);
+        }), "stalled-producer");
+        producer.setDaemon(true);
+        producer.start();
+        encoding.await();
+
+        //the stalled producer holds no position, the next round of the cells goes on
+        Record record = new Record();
+        Assert.assertTrue(queue.offer(record.set(222, -222)));
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 222);
+        Assert.assertTrue(queue.offer(record.set(333, -333)));
+
+        resume.countDown();
+        producer.join();
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 333);
+        Assert.assertTrue(queue.poll(record));
+        assertRecord(record, 111);
+        Assert.assertFalse(queue.poll(record));
+    }
+
+    @Test(priority = MULTI_THREADS, timeOut = 60_000)
+    public void testConcurrentCreation() throws Exception {
+        final int openers = 4;
+        for (int attempt = 0; attempt < 20; attempt++) {
+            File file = createFile();
+            CyclicBarrier barrier = new CyclicBarrier(openers);
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            Thread[] threads = new Thread[openers];
+            for (int i = 0; i < openers; i++) {
+                final long id = i + 1;
+                threads[i] = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        SharedArrayQueue queue = new SharedArrayQueue(file, openers, Record.SIZE);
+                        Assert.assertTrue(queue.offer(new Record().set(id, (int) -id)));
+                    } catch (Throwable e) {
+                        error.compareAndSet(null, e);
+                    }
+                }, "opener-" + i);
+                threads[i].start();
+            }
+            for (Thread thread : threads) thread.join();
+            Assert.assertNull(error.get());
+
+            //the file is formatted once, no record is lost by a late format
+            SharedArrayQueue queue = new SharedArrayQueue(file, openers, Record.SIZE);
+            Assert.assertEquals(queue.size(), openers);
+            Record record = new Record();
+            long ids = 0;
+            while (queue.poll(record)) ids += record.id;
+            Assert.assertEquals(ids, openers * (openers + 1) / 2);
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testRecoverByMappedQueue() throws IOException {
+        File file = createFile();
+        SharedArrayQueue shared = new SharedArrayQueue(file, 3, Record.SIZE);
+        Record record = new Record();
+        Assert.assertTrue(shared.offer(record.set(1, -1)));
+        Assert.assertTrue(shared.claimTail() >= 0);
+        Assert.assertTrue(shared.offer(record.set(3, -3)));
+
+        //no process uses the file
+        MappedArrayQueue mapped = new MappedArrayQueue(file, 3, Record.SIZE);
+        Assert.assertEquals(mapped.discarded(), 1);
+        Assert.assertTrue(mapped.poll(record));
+        assertRecord(record, 1);
+        Assert.assertTrue(mapped.poll(record));
+        assertRecord(record, 3);
+        Assert.assertFalse(mapped.poll(record));
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testKilledProducers() throws Exception {
+        final int capacity = 1000;
+        final int consumed = 100_000;
+        File file = createFile();
+        SharedArrayQueue queue = new SharedArrayQueue(file, capacity, Record.SIZE, LEASE);
+
+        Process process = new ProcessBuilder(new File(System.getProperty("java.home"), "bin/java").getPath(),
+                "-cp", System.getProperty("java.class.path"), Writer.class.getName(),
+                file.getPath(), Integer.toString(capacity))
+                .redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.INHERIT).start();
+
+        long[] last = new long[WRITERS];
+        Record record = new Record();
+        int count = 0;
+        try {
+            final long deadline = System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(1);
+            while (count < consumed && System.currentTimeMillis() < deadline) {
+                if (queue.poll(record)) {
+                    count += check(record, last);
+                } else {
+                    Assert.assertTrue(process.isAlive(), "writers have exited");
+                    Thread.yield();
+                }
+            }
+        } finally {
+            //the writers are killed while they are putting records
+            process.destroyForcibly().waitFor();
+        }
+        Assert.assertEquals(count, consumed, "writers are too slow");
+
+        //the positions of the killed writers are dropped after the lease
+        while (queue.poll(record)) count += check(record, last);
+        Assert.assertTrue(queue.isEmpty(), queue.toString());
+        Assert.assertEquals(count, last[0] + last[1] + last[2]);
+
+        for (int i = 0; i < capacity * 3; i++) {
+            Assert.assertTrue(queue.offer(record.set(i, -i)));
+            Assert.assertTrue(queue.poll(record));
+            assertRecord(record, i);
+        }
+    }
+
+    private static int check(Record record, long[] last) {
+        Assert.assertEquals(record.value, (int) -record.id, "torn record " + record.id);
+        final int writer = (int) (record.id / WRITER_IDS);
+        final long sequence = record.id % WRITER_IDS;
+        Assert.assertEquals(sequence, last[writer] + 1, "writer " + writer);
+        last[writer] = sequence;
+        return 1;
+    }
+
+    private static void assertRecord(Record record, long id) {
+        Assert.assertEquals(record.id, id);
+        Assert.assertEquals(record.value, (int) -id);
+    }
+
+    private static File createFile() throws IOException {
+        File file = File.createTempFile("shared-queue", ".dat");
+        file.deleteOnExit();
+        Assert.assertTrue(file.delete());
+        return file;
+    }
+
+    /**
+     * offers records of several threads until it is killed, a record's id is the writer number and the sequence
+     */
+    public static final class Writer {
+        public static void main(String[] args) throws IOException {
+            final SharedArrayQueue queue = new SharedArrayQueue(new File(args[0]), Integer.parseInt(args[1]),
+                    Record.SIZE, LEASE);
+            for (int i = 0; i < WRITERS; i++) {
+                final long first = i * WRITER_IDS;
+                new Thread(new Runnable() {
+                    @Override
+                    public void run() {
+                        Record record = new Record();
+                        for (long id = first + 1; ; ) {
+                            if (queue.offer(record.set(id, (int) -id))) id++;
+                            else Thread.yield();
+                        }
+                    }
+                }).start();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrent array queue tests with one inserter
+ */
+public class SpmcArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new SpmcArrayQueue<>(capacity, true);
+    }
+
+    @Override
+    protected int maxInserters() {
+        return 1;
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testManyGettersInConcurrentMode() {
+        int inserts = 1;
+        int attemptsPerInsert = 500_000;
+        int getters = 5;
+        testQueueConcurrently(createQueue(10, WRITE_STATISTIC), inserts, attemptsPerInsert, getters,
+                "testManyGettersInConcurrentMode", THRESHOLD * 2, THRESHOLD * 2);
+    }
+
+    @Test(priority = MULTI_THREADS, timeOut = 10_000)
+    public void testOfferWaitsForReleasingConsumer() throws InterruptedException {
+        final SpmcArrayQueue<String> queue = new SpmcArrayQueue<>(2);
+        Assert.assertTrue(queue.offer("Раз"));
+        Assert.assertTrue(queue.offer("Два"));
+        Assert.assertEquals(queue.poll(), "Раз");
+
+        //a consumer has polled the cell 0 and has not released it yet
+        final long released = queue._level(0);
+        queue._setLevel(0, AbstractLevelArrayQueue.POOLING);
+
+        final AtomicBoolean offered = new AtomicBoolean();
+        Thread producer = new Thread(() -> offered.set(queue.offer("Три")), "spmc-producer");
+        producer.start();
+        producer.join(100);
+        Assert.assertTrue(producer.isAlive());
+
+        queue._setLevel(0, released);
+        producer.join();
+        Assert.assertTrue(offered.get());
+        Assert.assertEquals(queue.poll(), "Два");
+        Assert.assertEquals(queue.poll(), "Три");
+    }
+}
@@ -0,0 +1,77 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Base queue tests with one inserter and one getter
+ */
+public class SpscArrayQueueTest extends BaseArrayQueueTest {
+
+    @Override
+    protected SpscArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new SpscArrayQueue<>(capacity);
+    }
+
+    @Override
+    protected int maxInserters() {
+        return 1;
+    }
+
+    @Override
+    protected int maxGetters() {
+        return 1;
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testPeekAndIterator() {
+        SpscArrayQueue<String> queue = createQueue(3, false);
+        Assert.assertNull(queue.peek());
+        Assert.assertFalse(queue.iterator().hasNext());
+        for (int round = 0; round < 3; round++) {
+            Assert.assertTrue(queue.offer("Раз"));
+            Assert.assertTrue(queue.offer("Два"));
+            Assert.assertEquals(queue.peek(), "Раз");
+
+            List<String> elements = new ArrayList<>();
+            queue.iterator().forEachRemaining(elements::add);
+            Assert.assertEquals(elements, Arrays.asList("Раз", "Два"));
+
+            Assert.assertEquals(queue.poll(), "Раз");
+            Assert.assertEquals(queue.peek(), "Два");
+            Assert.assertEquals(queue.poll(), "Два");
+            Assert.assertNull(queue.peek());
+        }
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testOrderInConcurrentMode() throws InterruptedException {
+        final int amount = 1_000_000;
+        final SpscArrayQueue<Integer> queue = new SpscArrayQueue<>(7);
+        Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < amount; ) {
+                    if (queue.offer(i)) i++;
+                    else Thread.yield();
+                }
+            }
+        });
+        producer.start();
+        for (int i = 0; i < amount; ) {
+            Integer e = queue.poll();
+            if (e != null) {
+                Assert.assertEquals(e.intValue(), i++);
+            } else {
+                Thread.yield();
+            }
+            Assert.assertTrue(queue.size() <= queue.capacity());
+        }
+        producer.join();
+        Assert.assertTrue(queue.isEmpty(), queue.toString());
+    }
+}
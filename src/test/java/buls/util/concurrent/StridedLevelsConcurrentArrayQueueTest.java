@@ -0,0 +1,27 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Base queue tests with a level per cache line
+ */
+public class StridedLevelsConcurrentArrayQueueTest extends ConcurrentArrayQueueTest {
+
+    @Override
+    protected ConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new ConcurrentArrayQueue<>(capacity, true, ConcurrentArrayQueue.CACHE_LINE_STRIDE);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testLevelsLength() {
+        ConcurrentArrayQueue<String> queue = createQueue(3, false);
+        Assert.assertEquals(queue.levelStride(), ConcurrentArrayQueue.CACHE_LINE_STRIDE);
+        Assert.assertEquals(queue.levels.length(), 3 * ConcurrentArrayQueue.CACHE_LINE_STRIDE);
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testWrongStride() {
+        new ConcurrentArrayQueue<String>(3, false, 3);
+    }
+}
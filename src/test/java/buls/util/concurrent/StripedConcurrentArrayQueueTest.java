@@ -0,0 +1,83 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The inherited single thread tests expect FIFO across a full queue, so small queues have one lane
+ */
+public class StripedConcurrentArrayQueueTest extends BaseArrayQueueTest {
+
+    @Override
+    protected StripedConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new StripedConcurrentArrayQueue<>(capacity, capacity >= 16 ? 4 : 1, true);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testCapacity() {
+        StripedConcurrentArrayQueue<String> queue = new StripedConcurrentArrayQueue<>(10, 4);
+        Assert.assertEquals(queue.lanes(), 4);
+        Assert.assertEquals(queue.capacity(), 12);
+        Assert.assertEquals(new StripedConcurrentArrayQueue<String>(0, 4).capacity(), 0);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testSpillAndSteal() {
+        StripedConcurrentArrayQueue<String> queue = new StripedConcurrentArrayQueue<>(8, 4);
+        int home = queue.homeLane();
+        for (int i = 0; i < 8; i++) {
+            Assert.assertTrue(queue.offer("e" + i));
+        }
+        Assert.assertFalse(queue.offer("e8"));
+        Assert.assertEquals(queue.size(), 8);
+        for (int i = 0; i < queue.lanes(); i++) {
+            Assert.assertEquals(queue.lane(i).size(), 2);
+        }
+        //the home lane keeps the first elements
+        Assert.assertEquals(queue.lane(home).peek(), "e0");
+        Assert.assertEquals(queue.peek(), "e0");
+
+        List<String> iterated = new ArrayList<>();
+        queue.iterator().forEachRemaining(iterated::add);
+        Assert.assertEquals(iterated.size(), 8);
+
+        //the lanes are polled in the order they were filled
+        for (int i = 0; i < 8; i++) {
+            Assert.assertEquals(queue.poll(), "e" + i);
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertNull(queue.peek());
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testStealFromOtherLane() throws InterruptedException {
+        final StripedConcurrentArrayQueue<String> queue = new StripedConcurrentArrayQueue<>(64, 64);
+        final String[] polled = new String[1];
+        Assert.assertTrue(queue.offer("Раз"));
+        Thread consumer = new Thread(() -> polled[0] = queue.poll(), "stealing-consumer");
+        consumer.start();
+        consumer.join();
+        Assert.assertEquals(polled[0], "Раз");
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testManyLanesInConcurrentMode() {
+        int inserts = Math.min(8, maxInserters());
+        int getters = Math.min(8, maxGetters());
+        int attemptsPerInsert = 50_000;
+        StripedConcurrentArrayQueue<String> queue = new StripedConcurrentArrayQueue<>(64, 8, true);
+        testQueueConcurrently(queue, inserts, attemptsPerInsert, getters, "testManyLanesInConcurrentMode",
+                inserts * attemptsPerInsert * 3, getters * attemptsPerInsert * 3);
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testWrongLanes() {
+        new StripedConcurrentArrayQueue<String>(4, 0);
+    }
+}
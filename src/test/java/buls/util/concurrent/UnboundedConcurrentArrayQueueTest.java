@@ -0,0 +1,201 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static buls.util.concurrent.BaseArrayQueueTest.MULTI_THREADS;
+import static buls.util.concurrent.BaseArrayQueueTest.SINGLE_THREAD;
+
+public class UnboundedConcurrentArrayQueueTest {
+
+    protected UnboundedConcurrentArrayQueue<String> createQueue(int chunkCapacity) {
+        return new UnboundedConcurrentArrayQueue<>(chunkCapacity);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testOrder() {
+        UnboundedConcurrentArrayQueue<String> queue = createQueue(3);
+        for (int i = 0; i < 10; i++) {
+            Assert.assertTrue(queue.offer("e" + i));
+        }
+        Assert.assertEquals(queue.size(), 10);
+        Assert.assertEquals(queue.chunks(), 4);
+        Assert.assertEquals(queue.toString(), "[e0, e1, e2, e3, e4, e5, e6, e7, e8, e9]");
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(queue.poll(), "e" + i);
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertTrue(queue.isEmpty());
+        Assert.assertEquals(queue.chunks(), 1);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testChunksReuse() {
+        UnboundedConcurrentArrayQueue<String> queue = createQueue(2);
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertTrue(queue.offer("a" + i));
+            Assert.assertTrue(queue.offer("b" + i));
+            Assert.assertTrue(queue.offer("c" + i));
+            Assert.assertEquals(queue.poll(), "a" + i);
+            Assert.assertEquals(queue.poll(), "b" + i);
+            Assert.assertEquals(queue.poll(), "c" + i);
+            Assert.assertNull(queue.poll());
+            Assert.assertTrue(queue.chunks() <= 2, queue.chunks() + "");
+        }
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testStaleProducerAfterChunkReuse() {
+        UnboundedConcurrentArrayQueue<String> queue = createQueue(2);
+        //a producer has seen the first chunk exhausted and stalls before linking the next one
+        UnboundedConcurrentArrayQueue.Chunk<String> stale = queue.headChunk();
+        long staleRound = stale.round;
+        Assert.assertTrue(queue.offer("e0"));
+        Assert.assertTrue(queue.offer("e1"));
+        Assert.assertTrue(queue.offer("e2"));
+        Assert.assertEquals(queue.poll(), "e0");
+        Assert.assertEquals(queue.poll(), "e1");
+        Assert.assertEquals(queue.poll(), "e2");
+        Assert.assertTrue(queue.offer("e3"));
+        //the drained first chunk is reused as the tail
+        Assert.assertTrue(queue.offer("e4"));
+        Assert.assertEquals(queue.chunks(), 2);
+        Assert.assertNotEquals(stale.round, staleRound);
+
+        Assert.assertTrue(queue.appendChunk(stale, staleRound));
+        Assert.assertEquals(queue.chunks(), 2);
+
+        Assert.assertTrue(queue.offer("e5"));
+        for (int i = 3; i <= 5; i++) {
+            Assert.assertEquals(queue.peek(), "e" + i);
+            Assert.assertEquals(queue.poll(), "e" + i);
+        }
+        Assert.assertNull(queue.poll());
+        Assert.assertEquals(queue.size(), 0);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testStaleConsumerAfterChunkReuse() {
+        UnboundedConcurrentArrayQueue<String> queue = createQueue(2);
+        UnboundedConcurrentArrayQueue.Chunk<String> stale = queue.headChunk();
+        long staleRound = stale.round;
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(queue.offer("e" + i));
+        }
+        for (int i = 0; i < 4; i++) {
+            Assert.assertEquals(queue.poll(), "e" + i);
+        }
+        //the chunk of the round 0 is reused for e6 and e7
+        Assert.assertTrue(queue.offer("e5"));
+        Assert.assertTrue(queue.offer("e6"));
+        Assert.assertEquals(queue.poll(), "e4");
+        Assert.assertEquals(queue.poll(), "e5");
+        Assert.assertEquals(queue.poll(), "e6");
+        Assert.assertSame(queue.headChunk(), stale);
+        Assert.assertTrue(queue.offer("e7"));
+        Assert.assertTrue(queue.offer("e8"));
+
+        //a consumer has seen the chunk drained in the round 0 and stalls before unlinking it
+        queue.removeChunk(stale, staleRound);
+        Assert.assertSame(queue.headChunk(), stale);
+        Assert.assertEquals(queue.poll(), "e7");
+        Assert.assertEquals(queue.poll(), "e8");
+        Assert.assertNull(queue.poll());
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testLockedCellsArePassed() {
+        UnboundedConcurrentArrayQueue<String> queue = createQueue(2);
+        UnboundedConcurrentArrayQueue.Chunk<String> first = queue.headChunk();
+        Assert.assertTrue(queue.offer("e0"));
+        Assert.assertTrue(queue.offer("e1"));
+        Assert.assertTrue(queue.offer("e2"));
+
+        //a consumer locks the first cell and stalls, the next consumers pass it and the drained chunk
+        final long head = first.lockHead(first.capacity());
+        Assert.assertEquals(head, 0);
+        Assert.assertEquals(queue.poll(), "e1");
+        Assert.assertEquals(queue.poll(), "e2");
+        Assert.assertNull(queue.poll());
+        Assert.assertEquals(queue.chunks(), 1);
+        first.releaseHead(head);
+    }
+
+    @Test(priority = SINGLE_THREAD)
+    public void testPeek() {
+        UnboundedConcurrentArrayQueue<String> queue = createQueue(2);
+        Assert.assertNull(queue.peek());
+        for (int i = 0; i < 5; i++) {
+            Assert.assertTrue(queue.offer("e" + i));
+        }
+        for (int i = 0; i < 5; i++) {
+            Assert.assertEquals(queue.peek(), "e" + i);
+            Assert.assertEquals(queue.poll(), "e" + i);
+        }
+        Assert.assertNull(queue.peek());
+    }
+
+    @Test(priority = SINGLE_THREAD, expectedExceptions = IllegalArgumentException.class)
+    public void testNullElement() {
+        createQueue(2).offer(null);
+    }
+
+    @Test(priority = MULTI_THREADS)
+    public void testInsertAnGetsInConcurrentMode() throws InterruptedException {
+        final int inserts = 3;
+        final int attemptsPerInsert = 200_000;
+        final int getters = 3;
+        final UnboundedConcurrentArrayQueue<String> queue = createQueue(16);
+        final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        final AtomicInteger finished = new AtomicInteger();
+
+        List<String> sourceValues = new ArrayList<>();
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < inserts; i++) {
+            final String name = "insert-thread-" + i;
+            for (int attempt = 0; attempt < attemptsPerInsert; attempt++) {
+                sourceValues.add(name + "-" + attempt);
+            }
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int attempt = 0; attempt < attemptsPerInsert; attempt++) {
+                        Assert.assertTrue(queue.offer(name + "-" + attempt));
+                    }
+                    finished.incrementAndGet();
+                }
+            }));
+        }
+        for (int i = 0; i < getters; i++) {
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    List<String> local = new ArrayList<>();
+                    while (finished.get() < inserts || !queue.isEmpty()) {
+                        String e = queue.poll();
+                        if (e != null) local.add(e);
+                        else Thread.yield();
+                    }
+                    results.addAll(local);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(results.size(), sourceValues.size(), queue.toString());
+        Collections.sort(sourceValues);
+        Collections.sort(results);
+        Assert.assertEquals(results, sourceValues);
+        Assert.assertEquals(queue.chunks(), 1);
+    }
+}
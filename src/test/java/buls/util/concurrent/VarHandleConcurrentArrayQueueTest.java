@@ -0,0 +1,37 @@
+package buls.util.concurrent;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class VarHandleConcurrentArrayQueueTest extends BaseArrayQueueTest {
+
+    @Override
+    protected VarHandleConcurrentArrayQueue<String> createQueue(int capacity, boolean writeStatistic) {
+        return new VarHandleConcurrentArrayQueue<>(capacity, true);
+    }
+
+    @Test(priority = OVERFLOW_SINGLE)
+    public void testTailOverflow() {
+        for (int capacity = 1; capacity <= 3; capacity++) {
+            VarHandleConcurrentArrayQueue<String> queue = createQueue(capacity, false);
+            for (int i = 0; i < capacity; i++) {
+                Assert.assertTrue(queue.offer("A"));
+                Assert.assertEquals(queue.poll(), "A");
+            }
+            final int maxValue = queue.max_sequence_value();
+            final long tail = maxValue - (maxValue % capacity);
+            queue.tailSequence.set(tail);
+            queue.headSequence.set(tail);
+            final long nextLevel = queue.afterGetLevel(tail - 1);
+            for (int i = 0; i < capacity; i++) {
+                queue._setLevel(i, nextLevel);
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                final String e = "e" + i;
+                Assert.assertTrue(queue.offer(e));
+                Assert.assertEquals(queue.poll(), e);
+            }
+        }
+    }
+}
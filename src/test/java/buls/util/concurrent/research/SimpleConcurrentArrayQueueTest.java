@@ -16,6 +16,19 @@ public class SimpleConcurrentArrayQueueTest extends BaseArrayQueueTest {
         return new SimpleConcurrentArrayQueue<>(capacity);
     }
 
+    @Test(priority = SINGLE_THREAD)
+    public void testPeek() {
+        SimpleConcurrentArrayQueue<String> queue = createQueue(2, false);
+        Assert.assertNull(queue.peek());
+        Assert.assertTrue(queue.offer("A"));
+        Assert.assertTrue(queue.offer("B"));
+        Assert.assertEquals(queue.peek(), "A");
+        Assert.assertEquals(queue.poll(), "A");
+        Assert.assertEquals(queue.peek(), "B");
+        Assert.assertEquals(queue.poll(), "B");
+        Assert.assertNull(queue.peek());
+    }
+
     @Test(priority = OVERFLOW_SINGLE)
     public void testTailOverflow() {
         SimpleConcurrentArrayQueue<String> queue = createQueue(2, false);